@@ -0,0 +1,124 @@
+/******************************************************************************
+ *  Compilation:  javac -cp algs4.jar:../src ConcurrentRandomizedQueueBenchmark.java
+ *  Execution:    java -cp algs4.jar:../src:. ConcurrentRandomizedQueueBenchmark
+ *  Dependencies: ConcurrentRandomizedQueue.java, RandomizedQueue.java
+ *
+ *  Throughput of ConcurrentRandomizedQueue compared with a RandomizedQueue
+ *  guarded by a single lock.
+ *
+ ******************************************************************************/
+
+import edu.princeton.cs.algs4.StdOut;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Compares the throughput of {@link ConcurrentRandomizedQueue} with a {@link RandomizedQueue}
+ * guarded by a single lock. Every thread repeatedly enqueues two items and dequeues one,
+ * so the queues keep growing and both producers and consumers are exercised.
+ */
+public class ConcurrentRandomizedQueueBenchmark {
+
+    private interface Pool {
+        void enqueue(Integer item);
+        Integer dequeue();
+    }
+
+    private static class LockedPool implements Pool {
+
+        private final RandomizedQueue<Integer> queue = new RandomizedQueue<>();
+        private final ReentrantLock lock = new ReentrantLock();
+
+        @Override
+        public void enqueue(Integer item) {
+            this.lock.lock();
+            try {
+                this.queue.enqueue(item);
+            }
+            finally {
+                this.lock.unlock();
+            }
+        }
+
+        @Override
+        public Integer dequeue() {
+            this.lock.lock();
+            try {
+                return this.queue.dequeue();
+            }
+            finally {
+                this.lock.unlock();
+            }
+        }
+    }
+
+    private static class StripedPool implements Pool {
+
+        private final ConcurrentRandomizedQueue<Integer> queue = new ConcurrentRandomizedQueue<>();
+
+        @Override
+        public void enqueue(Integer item) {
+            this.queue.enqueue(item);
+        }
+
+        @Override
+        public Integer dequeue() {
+            return this.queue.dequeue();
+        }
+    }
+
+    /**
+     * Runs the given number of operations per thread and returns the throughput in operations per second
+     */
+    private static double run(Pool pool, int threads, int operations) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < operations; i++) {
+                    pool.enqueue(i);
+                    pool.enqueue(i);
+                    pool.dequeue();
+                }
+            });
+            workers[t].start();
+        }
+
+        long startTime = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsed = System.nanoTime() - startTime;
+
+        return 3.0 * threads * operations / (elapsed / 1e9);
+    }
+
+    /**
+     * Usage: ConcurrentRandomizedQueueBenchmark [operations per thread] [max threads]
+     * @param args the arguments
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int operations = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        // Warm up both implementations
+        run(new LockedPool(), maxThreads, operations / 10);
+        run(new StripedPool(), maxThreads, operations / 10);
+
+        StdOut.printf("%8s %16s %16s%n", "threads", "locked ops/s", "striped ops/s");
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            double locked = run(new LockedPool(), threads, operations);
+            double striped = run(new StripedPool(), threads, operations);
+            StdOut.printf("%8d %16.0f %16.0f%n", threads, locked, striped);
+        }
+    }
+}
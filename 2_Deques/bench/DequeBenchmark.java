@@ -0,0 +1,149 @@
+/******************************************************************************
+ *  Compilation:  javac -cp jmh-core.jar:jmh-generator-annprocess.jar:../src DequeBenchmark.java
+ *  Execution:    java -cp jmh-core.jar:jopt-simple.jar:commons-math3.jar:../src:. DequeBenchmark
+ *  Dependencies: Deque.java, JMH
+ *
+ *  JMH benchmarks of Deque compared with java.util.ArrayDeque.
+ *  The largest sizes need a heap of several gigabytes.
+ *
+ ******************************************************************************/
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx16g" })
+public class DequeBenchmark {
+
+    private static final Integer ITEM = 42;
+
+    @Param({ "10", "1000", "100000", "10000000", "100000000" })
+    private int size;
+
+    private Deque<Integer> deque;
+
+    private ArrayDeque<Integer> arrayDeque;
+
+    // Random choices for the mixed benchmarks, the same sequence for both implementations
+    private SplittableRandom random;
+
+    @Setup
+    public void setUp() {
+        this.deque = new Deque<>();
+        this.arrayDeque = new ArrayDeque<>();
+        for (int i = 0; i < this.size; i++) {
+            this.deque.addLast(ITEM);
+            this.arrayDeque.addLast(ITEM);
+        }
+        this.random = new SplittableRandom(42);
+    }
+
+    @Benchmark
+    public Integer dequeAddLastRemoveFirst() {
+        this.deque.addLast(ITEM);
+        return this.deque.removeFirst();
+    }
+
+    @Benchmark
+    public Integer arrayDequeAddLastRemoveFirst() {
+        this.arrayDeque.addLast(ITEM);
+        return this.arrayDeque.removeFirst();
+    }
+
+    @Benchmark
+    public Integer dequeAddFirstRemoveFirst() {
+        this.deque.addFirst(ITEM);
+        return this.deque.removeFirst();
+    }
+
+    @Benchmark
+    public Integer arrayDequeAddFirstRemoveFirst() {
+        this.arrayDeque.addFirst(ITEM);
+        return this.arrayDeque.removeFirst();
+    }
+
+    /**
+     * Adds to a random end and removes from a random end, so the size stays the same
+     */
+    @Benchmark
+    public Integer dequeMixed() {
+        if (this.random.nextBoolean()) {
+            this.deque.addFirst(ITEM);
+        }
+        else {
+            this.deque.addLast(ITEM);
+        }
+        return this.random.nextBoolean() ? this.deque.removeFirst() : this.deque.removeLast();
+    }
+
+    @Benchmark
+    public Integer arrayDequeMixed() {
+        if (this.random.nextBoolean()) {
+            this.arrayDeque.addFirst(ITEM);
+        }
+        else {
+            this.arrayDeque.addLast(ITEM);
+        }
+        return this.random.nextBoolean() ? this.arrayDeque.removeFirst() : this.arrayDeque.removeLast();
+    }
+
+    @Benchmark
+    public Iterator<Integer> dequeIteratorConstruction() {
+        return this.deque.iterator();
+    }
+
+    @Benchmark
+    public Iterator<Integer> arrayDequeIteratorConstruction() {
+        return this.arrayDeque.iterator();
+    }
+
+    @Benchmark
+    public void dequeFullIteration(Blackhole blackhole) {
+        for (Integer item : this.deque) {
+            blackhole.consume(item);
+        }
+    }
+
+    @Benchmark
+    public void dequeForEach(Blackhole blackhole) {
+        this.deque.forEach(blackhole::consume);
+    }
+
+    @Benchmark
+    public void arrayDequeFullIteration(Blackhole blackhole) {
+        for (Integer item : this.arrayDeque) {
+            blackhole.consume(item);
+        }
+    }
+
+    /**
+     * Runs the benchmarks with the GC profiler which reports the allocation per operation
+     * @param args the benchmark name filter, all Deque benchmarks by default
+     */
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : DequeBenchmark.class.getSimpleName();
+        new Runner(new OptionsBuilder()
+                .include(include)
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,88 @@
+/******************************************************************************
+ *  Compilation:  javac -cp jmh-core.jar:jmh-generator-annprocess.jar:../src PermutationBenchmark.java
+ *  Execution:    java -cp jmh-core.jar:jopt-simple.jar:commons-math3.jar:../src:. PermutationBenchmark
+ *  Dependencies: Permutation.java, RandomizedQueue.java, JMH
+ *
+ *  JMH benchmarks of sampling k of n strings, once by filling a RandomizedQueue
+ *  as Permutation does by default and once with its streaming reservoir sampling.
+ *
+ ******************************************************************************/
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx16g" })
+public class PermutationBenchmark {
+
+    @Param({ "10", "1000", "100000", "10000000" })
+    private int size;
+
+    @Param({ "1", "10", "1000" })
+    private int k;
+
+    private String[] strings;
+
+    private byte[] input;
+
+    @Setup
+    public void setUp() {
+        this.strings = new String[this.size];
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < this.size; i++) {
+            this.strings[i] = Integer.toString(i);
+            builder.append(this.strings[i]).append('\n');
+        }
+        this.input = builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public void randomizedQueue(Blackhole blackhole) {
+        RandomizedQueue<String> queue = new RandomizedQueue<>();
+        for (String string : this.strings) {
+            queue.enqueue(string);
+        }
+
+        Iterator<String> iterator = queue.iterator();
+        for (int i = 0; i < this.k && iterator.hasNext(); i++) {
+            blackhole.consume(iterator.next());
+        }
+    }
+
+    @Benchmark
+    public String[] reservoir() {
+        return Permutation.sample(Channels.newChannel(new ByteArrayInputStream(this.input)), this.k);
+    }
+
+    /**
+     * Runs the benchmarks with the GC profiler which reports the allocation per operation
+     * @param args the benchmark name filter, all Permutation benchmarks by default
+     */
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : PermutationBenchmark.class.getSimpleName();
+        new Runner(new OptionsBuilder()
+                .include(include)
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,131 @@
+/******************************************************************************
+ *  Compilation:  javac -cp jmh-core.jar:jmh-generator-annprocess.jar:../src RandomizedQueueBenchmark.java
+ *  Execution:    java -cp jmh-core.jar:jopt-simple.jar:commons-math3.jar:../src:. RandomizedQueueBenchmark
+ *  Dependencies: RandomizedQueue.java, JMH
+ *
+ *  JMH benchmarks of RandomizedQueue. Enqueue and dequeue are compared with
+ *  the FIFO operations of java.util.ArrayDeque as the lower bound for an array queue.
+ *  The largest sizes need a heap of several gigabytes.
+ *
+ ******************************************************************************/
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx16g" })
+public class RandomizedQueueBenchmark {
+
+    private static final Integer ITEM = 42;
+
+    @Param({ "10", "1000", "100000", "10000000", "100000000" })
+    private int size;
+
+    private RandomizedQueue<Integer> queue;
+
+    private ArrayDeque<Integer> arrayDeque;
+
+    private Iterator<Integer> reusableIterator;
+
+    @Setup
+    public void setUp() {
+        this.queue = new RandomizedQueue<>(new SplittableRandom(42));
+        this.arrayDeque = new ArrayDeque<>();
+        for (int i = 0; i < this.size; i++) {
+            this.queue.enqueue(ITEM);
+            this.arrayDeque.addLast(ITEM);
+        }
+        this.reusableIterator = this.queue.iterator(null);
+    }
+
+    @Benchmark
+    public Integer queueEnqueueDequeue() {
+        this.queue.enqueue(ITEM);
+        return this.queue.dequeue();
+    }
+
+    @Benchmark
+    public Integer arrayDequeOfferPoll() {
+        this.arrayDeque.offer(ITEM);
+        return this.arrayDeque.poll();
+    }
+
+    @Benchmark
+    public Integer queueSample() {
+        return this.queue.sample();
+    }
+
+    @Benchmark
+    public Iterator<Integer> queueIteratorConstruction() {
+        return this.queue.iterator();
+    }
+
+    @Benchmark
+    public Iterator<Integer> queueReusableIteratorConstruction() {
+        this.reusableIterator = this.queue.iterator(this.reusableIterator);
+        return this.reusableIterator;
+    }
+
+    @Benchmark
+    public Iterator<Integer> arrayDequeIteratorConstruction() {
+        return this.arrayDeque.iterator();
+    }
+
+    @Benchmark
+    public void queueFullIteration(Blackhole blackhole) {
+        for (Integer item : this.queue) {
+            blackhole.consume(item);
+        }
+    }
+
+    @Benchmark
+    public void queueReusableFullIteration(Blackhole blackhole) {
+        this.reusableIterator = this.queue.iterator(this.reusableIterator);
+        while (this.reusableIterator.hasNext()) {
+            blackhole.consume(this.reusableIterator.next());
+        }
+    }
+
+    @Benchmark
+    public void queueForEach(Blackhole blackhole) {
+        this.queue.forEach(blackhole::consume);
+    }
+
+    @Benchmark
+    public void arrayDequeFullIteration(Blackhole blackhole) {
+        for (Integer item : this.arrayDeque) {
+            blackhole.consume(item);
+        }
+    }
+
+    /**
+     * Runs the benchmarks with the GC profiler which reports the allocation per operation
+     * @param args the benchmark name filter, all RandomizedQueue benchmarks by default
+     */
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : RandomizedQueueBenchmark.class.getSimpleName();
+        new Runner(new OptionsBuilder()
+                .include(include)
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,283 @@
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded thread-safe deque whose operations wait instead of failing.
+ * Producers wait while the deque is full and consumers wait while it is empty.
+ * Waiting is built on {@link ReentrantLock} and {@link Condition} rather than
+ * synchronized, so a waiting virtual thread does not pin its carrier thread.
+ */
+public class BoundedBlockingDeque<Item> {
+
+    private final Deque<Item> deque = new Deque<>();
+
+    private final int capacity;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition notEmpty = lock.newCondition();
+
+    private final Condition notFull = lock.newCondition();
+
+    /**
+     * Construct an empty deque holding at most capacity items
+     * @param capacity the maximum number of items
+     */
+    public BoundedBlockingDeque(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be greater than 0!");
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Is the deque is empty?
+     * @return true if the deque is empty
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Return the size of the deque
+     * @return the number of items
+     */
+    public int size() {
+        this.lock.lock();
+        try {
+            return this.deque.size();
+        }
+        finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Return the number of items which can be added without waiting
+     * @return the remaining capacity
+     */
+    public int remainingCapacity() {
+        this.lock.lock();
+        try {
+            return this.capacity - this.deque.size();
+        }
+        finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Add the item to the front, waiting while the deque is full
+     * @param item the Item
+     */
+    public void putFirst(Item item) throws InterruptedException {
+        checkItemNotNull(item);
+        this.lock.lockInterruptibly();
+        try {
+            while (this.deque.size() == this.capacity) {
+                this.notFull.await();
+            }
+            this.deque.addFirst(item);
+            this.notEmpty.signal();
+        }
+        finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Add the item to the end, waiting while the deque is full
+     * @param item the Item
+     */
+    public void putLast(Item item) throws InterruptedException {
+        checkItemNotNull(item);
+        this.lock.lockInterruptibly();
+        try {
+            while (this.deque.size() == this.capacity) {
+                this.notFull.await();
+            }
+            this.deque.addLast(item);
+            this.notEmpty.signal();
+        }
+        finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Add the item to the front, waiting up to the timeout while the deque is full
+     * @param item the Item
+     * @param timeout how long to wait
+     * @param unit the unit of the timeout
+     * @return true if the item was added, false if the timeout elapsed
+     */
+    public boolean offerFirst(Item item, long timeout, TimeUnit unit) throws InterruptedException {
+        checkItemNotNull(item);
+        long nanos = unit.toNanos(timeout);
+        this.lock.lockInterruptibly();
+        try {
+            while (this.deque.size() == this.capacity) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = this.notFull.awaitNanos(nanos);
+            }
+            this.deque.addFirst(item);
+            this.notEmpty.signal();
+            return true;
+        }
+        finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Add the item to the end, waiting up to the timeout while the deque is full
+     * @param item the Item
+     * @param timeout how long to wait
+     * @param unit the unit of the timeout
+     * @return true if the item was added, false if the timeout elapsed
+     */
+    public boolean offerLast(Item item, long timeout, TimeUnit unit) throws InterruptedException {
+        checkItemNotNull(item);
+        long nanos = unit.toNanos(timeout);
+        this.lock.lockInterruptibly();
+        try {
+            while (this.deque.size() == this.capacity) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = this.notFull.awaitNanos(nanos);
+            }
+            this.deque.addLast(item);
+            this.notEmpty.signal();
+            return true;
+        }
+        finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Remove and return the item from the front, waiting while the deque is empty
+     * @return the removed item
+     */
+    public Item takeFirst() throws InterruptedException {
+        this.lock.lockInterruptibly();
+        try {
+            while (this.deque.isEmpty()) {
+                this.notEmpty.await();
+            }
+            Item item = this.deque.removeFirst();
+            this.notFull.signal();
+            return item;
+        }
+        finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Remove and return the item from the end, waiting while the deque is empty
+     * @return the removed item
+     */
+    public Item takeLast() throws InterruptedException {
+        this.lock.lockInterruptibly();
+        try {
+            while (this.deque.isEmpty()) {
+                this.notEmpty.await();
+            }
+            Item item = this.deque.removeLast();
+            this.notFull.signal();
+            return item;
+        }
+        finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Remove and return the item from the front, waiting up to the timeout while the deque is empty
+     * @param timeout how long to wait
+     * @param unit the unit of the timeout
+     * @return the removed item or null if the timeout elapsed
+     */
+    public Item pollFirst(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        this.lock.lockInterruptibly();
+        try {
+            while (this.deque.isEmpty()) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = this.notEmpty.awaitNanos(nanos);
+            }
+            Item item = this.deque.removeFirst();
+            this.notFull.signal();
+            return item;
+        }
+        finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Remove and return the item from the end, waiting up to the timeout while the deque is empty
+     * @param timeout how long to wait
+     * @param unit the unit of the timeout
+     * @return the removed item or null if the timeout elapsed
+     */
+    public Item pollLast(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        this.lock.lockInterruptibly();
+        try {
+            while (this.deque.isEmpty()) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = this.notEmpty.awaitNanos(nanos);
+            }
+            Item item = this.deque.removeLast();
+            this.notFull.signal();
+            return item;
+        }
+        finally {
+            this.lock.unlock();
+        }
+    }
+
+    private void checkItemNotNull(Item item) {
+        if (item == null) {
+            throw new IllegalArgumentException();
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        BoundedBlockingDeque<String> deque = new BoundedBlockingDeque<>(2);
+        assert deque.isEmpty();
+        assert deque.remainingCapacity() == 2;
+
+        deque.putFirst("world");
+        deque.putFirst("Hello");
+        assert deque.size() == 2;
+        assert !deque.offerLast("!", 10, TimeUnit.MILLISECONDS);
+
+        Thread consumer = new Thread(() -> {
+            try {
+                assert "Hello".equals(deque.takeFirst());
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        consumer.start();
+        deque.putLast("!");
+        consumer.join();
+
+        assert "!".equals(deque.takeLast());
+        assert "world".equals(deque.pollFirst(10, TimeUnit.MILLISECONDS));
+        assert deque.pollLast(10, TimeUnit.MILLISECONDS) == null;
+        assert deque.isEmpty();
+    }
+}
@@ -0,0 +1,186 @@
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Thread-safe randomized queue split into independently locked stripes.
+ * Every thread enqueues into its own stripe, so producers rarely contend.
+ * Dequeue and sample pick the larger of two random stripes, which keeps the selection
+ * close to uniform over all items while consumers spread over different locks.
+ */
+public class ConcurrentRandomizedQueue<Item> {
+
+    private final RandomizedQueue<Item>[] stripes;
+
+    private final ReentrantLock[] locks;
+
+    // Stripe sizes readable without taking the stripe lock
+    private final AtomicIntegerArray sizes;
+
+    /**
+     * Construct an empty queue with one stripe per available processor
+     */
+    public ConcurrentRandomizedQueue() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Construct an empty queue with the given number of stripes
+     * @param stripeCount the number of stripes
+     */
+    public ConcurrentRandomizedQueue(int stripeCount) {
+        if (stripeCount <= 0) {
+            throw new IllegalArgumentException("Stripe count must be greater than 0!");
+        }
+
+        this.stripes = (RandomizedQueue<Item>[]) new RandomizedQueue<?>[stripeCount];
+        this.locks = new ReentrantLock[stripeCount];
+        this.sizes = new AtomicIntegerArray(stripeCount);
+        for (int i = 0; i < stripeCount; i++) {
+            this.stripes[i] = new RandomizedQueue<>();
+            this.locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Return true if the queue is empty at the moment of the call
+     * @return true if the queue is empty
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Return the number of items on the queue at the moment of the call
+     * @return the number of items on the queue
+     */
+    public int size() {
+        int size = 0;
+        for (int i = 0; i < this.stripes.length; i++) {
+            size += this.sizes.get(i);
+        }
+        return size;
+    }
+
+    /**
+     * Add the item to the stripe of the calling thread
+     * @param item the Item
+     */
+    public void enqueue(Item item) {
+        if (item == null) {
+            throw new IllegalArgumentException();
+        }
+
+        int stripe = threadStripe();
+        ReentrantLock lock = this.locks[stripe];
+        lock.lock();
+        try {
+            this.stripes[stripe].enqueue(item);
+            this.sizes.incrementAndGet(stripe);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Remove and return a random item
+     * @return the removed item
+     * @throws NoSuchElementException if all stripes are empty
+     */
+    public Item dequeue() {
+        int first = chooseStripe();
+        for (int i = 0; i < this.stripes.length; i++) {
+            int stripe = (first + i) % this.stripes.length;
+            if (this.sizes.get(stripe) == 0) {
+                continue;
+            }
+
+            ReentrantLock lock = this.locks[stripe];
+            lock.lock();
+            try {
+                if (!this.stripes[stripe].isEmpty()) {
+                    this.sizes.decrementAndGet(stripe);
+                    return this.stripes[stripe].dequeue();
+                }
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+        throw new NoSuchElementException();
+    }
+
+    /**
+     * Return (but do not remove) a random item
+     * @return the sampled item
+     * @throws NoSuchElementException if all stripes are empty
+     */
+    public Item sample() {
+        int first = chooseStripe();
+        for (int i = 0; i < this.stripes.length; i++) {
+            int stripe = (first + i) % this.stripes.length;
+            if (this.sizes.get(stripe) == 0) {
+                continue;
+            }
+
+            ReentrantLock lock = this.locks[stripe];
+            lock.lock();
+            try {
+                if (!this.stripes[stripe].isEmpty()) {
+                    return this.stripes[stripe].sample();
+                }
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+        throw new NoSuchElementException();
+    }
+
+    /**
+     * Returns the larger of two random stripes, so bigger stripes are drained faster
+     * @return the stripe index to start the search from
+     */
+    private int chooseStripe() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(this.stripes.length);
+        int second = random.nextInt(this.stripes.length);
+        return this.sizes.get(first) >= this.sizes.get(second) ? first : second;
+    }
+
+    private int threadStripe() {
+        long id = Thread.currentThread().getId();
+        // Mix the bits, thread ids are sequential
+        int hash = (int) (id * 0x9E3779B97F4A7C15L >>> 32);
+        return Math.floorMod(hash, this.stripes.length);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        ConcurrentRandomizedQueue<Integer> queue = new ConcurrentRandomizedQueue<>(4);
+        assert queue.isEmpty();
+
+        Thread[] producers = new Thread[4];
+        for (int t = 0; t < producers.length; t++) {
+            producers[t] = new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    queue.enqueue(i);
+                }
+            });
+            producers[t].start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        assert queue.size() == 4000;
+
+        int removed = 0;
+        while (!queue.isEmpty()) {
+            queue.dequeue();
+            removed++;
+        }
+        assert removed == 4000;
+        System.out.println("Removed: " + removed);
+    }
+}
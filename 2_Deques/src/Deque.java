@@ -1,5 +1,8 @@
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.StreamSupport;
 
 public class Deque<Item> implements Iterable<Item> {
 
@@ -109,6 +112,64 @@ public class Deque<Item> implements Iterable<Item> {
         return removed.item;
     }
 
+    /**
+     * Remove the back half of the items, rounded up, and return them as a new deque.
+     * The nodes are relinked rather than copied, only the split point is searched for.
+     * @return the deque holding the removed items in the same order
+     */
+    public Deque<Item> splitOffHalf() {
+        return stealBatch((this.size + 1) / 2);
+    }
+
+    /**
+     * Remove up to count items from the end and return them as a new deque in O(count).
+     * The nodes are relinked rather than copied.
+     * @param count the maximum number of items to remove
+     * @return the deque holding the removed items in the same order
+     */
+    public Deque<Item> stealBatch(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Count must not be negative!");
+        }
+
+        Deque<Item> stolen = new Deque<>();
+        int batch = Math.min(count, this.size);
+        if (batch == 0) {
+            return stolen;
+        }
+
+        // Find the first stolen node walking from the nearer end
+        Node first;
+        if (batch <= this.size - batch) {
+            first = this.tail;
+            for (int i = 1; i < batch; i++) {
+                first = first.prev;
+            }
+        }
+        else {
+            first = this.head;
+            for (int i = 0; i < this.size - batch; i++) {
+                first = first.next;
+            }
+        }
+
+        stolen.head = first;
+        stolen.tail = this.tail;
+        stolen.size = batch;
+
+        this.tail = first.prev;
+        if (this.tail == null) {
+            this.head = null;
+        }
+        else {
+            this.tail.next = null;
+        }
+        first.prev = null;
+        this.size -= batch;
+
+        return stolen;
+    }
+
     /**
      * Construct new {@link Iterator} over the deque
      * @return
@@ -117,6 +178,47 @@ public class Deque<Item> implements Iterable<Item> {
         return new DequeIterator(this.head);
     }
 
+    /**
+     * Return an iterator over the deque, recycling the given iterator when possible.
+     * An iterator previously returned for this deque is reset to the front and returned
+     * without allocation.
+     * @param reuse the iterator to recycle or null
+     * @return the iterator
+     */
+    public Iterator<Item> iterator(Iterator<Item> reuse) {
+        if (reuse instanceof Deque.DequeIterator) {
+            DequeIterator iterator = (DequeIterator) reuse;
+            if (iterator.deque() == this) {
+                iterator.nextNode = this.head;
+                return iterator;
+            }
+        }
+        return iterator();
+    }
+
+    /**
+     * Perform the action for each item from the front to the end without allocation
+     * @param action the action
+     */
+    @Override
+    public void forEach(Consumer<? super Item> action) {
+        if (action == null) {
+            throw new IllegalArgumentException();
+        }
+        for (Node node = this.head; node != null; node = node.next) {
+            action.accept(node.item);
+        }
+    }
+
+    /**
+     * Construct new {@link Spliterator} over the deque which splits in balanced halves
+     * @return the spliterator
+     */
+    @Override
+    public Spliterator<Item> spliterator() {
+        return new DequeSpliterator(this.head, this.size);
+    }
+
     private void checkItemNotNull(Item item) {
         if (item == null) {
             throw new IllegalArgumentException();
@@ -137,6 +239,10 @@ public class Deque<Item> implements Iterable<Item> {
             this.nextNode = nextNode;
         }
 
+        private Deque<Item> deque() {
+            return Deque.this;
+        }
+
         @Override
         public void remove() {
             throw new UnsupportedOperationException();
@@ -158,6 +264,67 @@ public class Deque<Item> implements Iterable<Item> {
         }
     }
 
+    private class DequeSpliterator implements Spliterator<Item> {
+
+        private Node nextNode;
+        private int remaining;
+
+        private DequeSpliterator(Node nextNode, int remaining) {
+            this.nextNode = nextNode;
+            this.remaining = remaining;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Item> action) {
+            if (this.remaining == 0) {
+                return false;
+            }
+            Node node = this.nextNode;
+            this.nextNode = node.next;
+            this.remaining--;
+            action.accept(node.item);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Item> action) {
+            for (; this.remaining > 0; this.remaining--) {
+                Node node = this.nextNode;
+                this.nextNode = node.next;
+                action.accept(node.item);
+            }
+        }
+
+        /**
+         * Splits off the first half of the remaining nodes.
+         * The list has no random access, so the middle is found by walking half of the nodes.
+         */
+        @Override
+        public Spliterator<Item> trySplit() {
+            int half = this.remaining / 2;
+            if (half == 0) {
+                return null;
+            }
+
+            Node prefix = this.nextNode;
+            for (int i = 0; i < half; i++) {
+                this.nextNode = this.nextNode.next;
+            }
+            this.remaining -= half;
+            return new DequeSpliterator(prefix, half);
+        }
+
+        @Override
+        public long estimateSize() {
+            return this.remaining;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.NONNULL;
+        }
+    }
+
     private class Node {
 
         private final Item item;
@@ -205,5 +372,36 @@ public class Deque<Item> implements Iterable<Item> {
 
         assert deque.size() == 0;
         assert deque.isEmpty();
+
+        for (int i = 0; i < 1000; i++) {
+            deque.addLast(Integer.toString(i));
+        }
+        long sum = StreamSupport.stream(deque.spliterator(), true).mapToLong(Long::parseLong).sum();
+        assert sum == 999 * 1000 / 2;
+
+        long[] forEachSum = new long[1];
+        deque.forEach(item -> forEachSum[0] += Long.parseLong(item));
+        assert forEachSum[0] == sum;
+
+        iterator = deque.iterator(null);
+        iterator.next();
+        Iterator<String> recycled = deque.iterator(iterator);
+        assert recycled == iterator;
+        assert "0".equals(recycled.next());
+
+        Deque<String> half = deque.splitOffHalf();
+        assert deque.size() == 500;
+        assert half.size() == 500;
+        assert "499".equals(deque.removeLast());
+        assert "500".equals(half.removeFirst());
+        assert "999".equals(half.removeLast());
+
+        Deque<String> batch = half.stealBatch(10);
+        assert batch.size() == 10;
+        assert half.size() == 488;
+        assert "989".equals(batch.removeFirst());
+        assert "988".equals(half.removeLast());
+        assert half.stealBatch(1000).size() == 487;
+        assert half.isEmpty();
     }
 }
\ No newline at end of file
@@ -0,0 +1,411 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Deque of fixed-width byte records stored outside of the Java heap.
+ * Records are packed into direct buffer segments, so the deque costs no objects per record.
+ * When a spill file is given, the segments in the middle of the deque are moved into
+ * memory-mapped slots of the file and only the segments near the ends stay in memory.
+ * A spilled segment is loaded back when it becomes the first or the last segment.
+ */
+public class OffHeapRecordDeque implements AutoCloseable {
+
+    private static final int DEFAULT_SEGMENT_BYTES = 1 << 20;
+
+    private final int recordSize;
+
+    private final int recordsPerSegment;
+
+    private final int maxHotSegments;
+
+    private final FileChannel spillChannel;
+
+    // Ring of segments from the front to the end of the deque
+    private Segment[] segments = new Segment[4];
+
+    private int headSegment = 0;
+
+    private int segmentCount = 0;
+
+    private int hotSegments = 0;
+
+    private long size = 0;
+
+    // A released in-memory buffer kept to avoid reallocation when an end oscillates around a segment boundary
+    private ByteBuffer spareBuffer;
+
+    // Mapped slots of the spill file, free slots are reused before the file grows
+    private MappedByteBuffer[] spillSlots = new MappedByteBuffer[0];
+
+    private int[] freeSlots = new int[0];
+
+    private int freeSlotCount = 0;
+
+    /**
+     * Construct an empty deque which keeps all records in memory
+     * @param recordSize the size of every record in bytes
+     */
+    public OffHeapRecordDeque(int recordSize) {
+        this(recordSize, Math.max(1, DEFAULT_SEGMENT_BYTES / Math.max(1, recordSize)), Integer.MAX_VALUE, null);
+    }
+
+    /**
+     * Construct an empty deque which spills the middle segments to the given file
+     * @param recordSize the size of every record in bytes
+     * @param recordsPerSegment the number of records in one segment
+     * @param maxHotSegments the number of segments kept in memory, at least 2
+     * @param spillFile the file for the spilled segments or null to keep all segments in memory
+     */
+    public OffHeapRecordDeque(int recordSize, int recordsPerSegment, int maxHotSegments, Path spillFile) {
+        if (recordSize <= 0 || recordsPerSegment <= 0) {
+            throw new IllegalArgumentException("Record and segment sizes must be greater than 0!");
+        }
+        if ((long) recordSize * recordsPerSegment > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Segment must not be larger than 2 GB!");
+        }
+        if (maxHotSegments < 2) {
+            throw new IllegalArgumentException("At least 2 segments must be kept in memory!");
+        }
+
+        this.recordSize = recordSize;
+        this.recordsPerSegment = recordsPerSegment;
+        this.maxHotSegments = maxHotSegments;
+
+        if (spillFile == null) {
+            this.spillChannel = null;
+        }
+        else {
+            try {
+                this.spillChannel = FileChannel.open(spillFile, StandardOpenOption.CREATE,
+                        StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Is the deque is empty?
+     * @return true if the deque is empty
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Return the number of records in the deque
+     * @return the number of records
+     */
+    public long size() {
+        return this.size;
+    }
+
+    /**
+     * Return the size of every record in bytes
+     * @return the record size
+     */
+    public int recordSize() {
+        return this.recordSize;
+    }
+
+    /**
+     * Add the record to the front
+     * @param record the record, its length must be equal to the record size
+     */
+    public void addFirst(byte[] record) {
+        checkRecord(record);
+
+        Segment first = segmentCount == 0 ? null : segment(0);
+        if (first == null || first.start == 0) {
+            first = new Segment(allocate(), this.recordsPerSegment);
+            insertFirst(first);
+            spillIfNeeded(1);
+        }
+
+        first.start--;
+        first.buffer.put(first.start * this.recordSize, record);
+        this.size++;
+    }
+
+    /**
+     * Add the record to the end
+     * @param record the record, its length must be equal to the record size
+     */
+    public void addLast(byte[] record) {
+        checkRecord(record);
+
+        Segment last = segmentCount == 0 ? null : segment(this.segmentCount - 1);
+        if (last == null || last.end == this.recordsPerSegment) {
+            last = new Segment(allocate(), 0);
+            insertLast(last);
+            spillIfNeeded(this.segmentCount - 2);
+        }
+
+        last.buffer.put(last.end * this.recordSize, record);
+        last.end++;
+        this.size++;
+    }
+
+    /**
+     * Remove and return the record from the front
+     * @return the removed record
+     */
+    public byte[] removeFirst() {
+        byte[] record = new byte[this.recordSize];
+        removeFirst(record);
+        return record;
+    }
+
+    /**
+     * Remove the record from the front and copy it into the target without allocating
+     * @param target the array receiving the record, its length must be equal to the record size
+     */
+    public void removeFirst(byte[] target) {
+        checkRecord(target);
+        checkNotEmpty();
+
+        Segment first = segment(0);
+        first.buffer.get(first.start * this.recordSize, target);
+        first.start++;
+        this.size--;
+
+        if (first.start == first.end) {
+            this.headSegment = (this.headSegment + 1) % this.segments.length;
+            this.segmentCount--;
+            release(first);
+            if (this.segmentCount > 0) {
+                load(segment(0));
+            }
+        }
+    }
+
+    /**
+     * Remove and return the record from the end
+     * @return the removed record
+     */
+    public byte[] removeLast() {
+        byte[] record = new byte[this.recordSize];
+        removeLast(record);
+        return record;
+    }
+
+    /**
+     * Remove the record from the end and copy it into the target without allocating
+     * @param target the array receiving the record, its length must be equal to the record size
+     */
+    public void removeLast(byte[] target) {
+        checkRecord(target);
+        checkNotEmpty();
+
+        Segment last = segment(this.segmentCount - 1);
+        last.end--;
+        last.buffer.get(last.end * this.recordSize, target);
+        this.size--;
+
+        if (last.start == last.end) {
+            this.segmentCount--;
+            release(last);
+            if (this.segmentCount > 0) {
+                load(segment(this.segmentCount - 1));
+            }
+        }
+    }
+
+    /**
+     * Closes the spill file. The deque must not be used afterwards.
+     */
+    @Override
+    public void close() {
+        if (this.spillChannel != null) {
+            try {
+                this.spillChannel.close();
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private Segment segment(int position) {
+        return this.segments[(this.headSegment + position) % this.segments.length];
+    }
+
+    private void insertFirst(Segment segment) {
+        growSegmentsIfFull();
+        this.headSegment = (this.headSegment - 1 + this.segments.length) % this.segments.length;
+        this.segments[this.headSegment] = segment;
+        this.segmentCount++;
+    }
+
+    private void insertLast(Segment segment) {
+        growSegmentsIfFull();
+        this.segments[(this.headSegment + this.segmentCount) % this.segments.length] = segment;
+        this.segmentCount++;
+    }
+
+    private void growSegmentsIfFull() {
+        if (this.segmentCount < this.segments.length) {
+            return;
+        }
+        Segment[] newSegments = new Segment[2 * this.segments.length];
+        for (int i = 0; i < this.segmentCount; i++) {
+            newSegments[i] = segment(i);
+        }
+        this.segments = newSegments;
+        this.headSegment = 0;
+    }
+
+    /**
+     * Spills the segment at the given position when too many segments are in memory
+     * and the segment is not at either end of the deque
+     */
+    private void spillIfNeeded(int position) {
+        if (this.spillChannel == null || this.hotSegments <= this.maxHotSegments) {
+            return;
+        }
+        if (position <= 0 || position >= this.segmentCount - 1) {
+            return;
+        }
+
+        Segment segment = segment(position);
+        if (segment.slot >= 0) {
+            return;
+        }
+
+        int slot = acquireSlot();
+        MappedByteBuffer mapped = this.spillSlots[slot];
+        mapped.put(0, segment.buffer, 0, this.recordsPerSegment * this.recordSize);
+        releaseBuffer(segment.buffer);
+        segment.buffer = mapped;
+        segment.slot = slot;
+    }
+
+    /**
+     * Moves a spilled segment back into memory
+     */
+    private void load(Segment segment) {
+        if (segment.slot < 0) {
+            return;
+        }
+
+        ByteBuffer buffer = allocate();
+        buffer.put(0, segment.buffer, 0, this.recordsPerSegment * this.recordSize);
+        freeSlot(segment.slot);
+        segment.buffer = buffer;
+        segment.slot = -1;
+    }
+
+    private void release(Segment segment) {
+        if (segment.slot >= 0) {
+            freeSlot(segment.slot);
+        }
+        else {
+            releaseBuffer(segment.buffer);
+        }
+    }
+
+    private ByteBuffer allocate() {
+        this.hotSegments++;
+        if (this.spareBuffer != null) {
+            ByteBuffer buffer = this.spareBuffer;
+            this.spareBuffer = null;
+            return buffer;
+        }
+        return ByteBuffer.allocateDirect(this.recordsPerSegment * this.recordSize);
+    }
+
+    private void releaseBuffer(ByteBuffer buffer) {
+        this.hotSegments--;
+        if (this.spareBuffer == null) {
+            this.spareBuffer = buffer;
+        }
+    }
+
+    private int acquireSlot() {
+        if (this.freeSlotCount > 0) {
+            return this.freeSlots[--this.freeSlotCount];
+        }
+
+        int slot = this.spillSlots.length;
+        long segmentBytes = (long) this.recordsPerSegment * this.recordSize;
+        try {
+            MappedByteBuffer mapped = this.spillChannel.map(FileChannel.MapMode.READ_WRITE,
+                    slot * segmentBytes, segmentBytes);
+            this.spillSlots = Arrays.copyOf(this.spillSlots, slot + 1);
+            this.spillSlots[slot] = mapped;
+            this.freeSlots = Arrays.copyOf(this.freeSlots, slot + 1);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return slot;
+    }
+
+    private void freeSlot(int slot) {
+        this.freeSlots[this.freeSlotCount++] = slot;
+    }
+
+    private void checkRecord(byte[] record) {
+        if (record == null || record.length != this.recordSize) {
+            throw new IllegalArgumentException();
+        }
+    }
+
+    private void checkNotEmpty() {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+    }
+
+    /**
+     * Block of records, the records occupy positions [start, end) of the buffer
+     */
+    private static class Segment {
+
+        private ByteBuffer buffer;
+        private int start;
+        private int end;
+        // The spill file slot or -1 if the segment is in memory
+        private int slot = -1;
+
+        Segment(ByteBuffer buffer, int position) {
+            this.buffer = buffer;
+            this.start = position;
+            this.end = position;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path spillFile = Files.createTempFile("deque", ".spill");
+        try (OffHeapRecordDeque deque = new OffHeapRecordDeque(4, 8, 2, spillFile)) {
+            assert deque.isEmpty();
+            for (int i = 0; i < 100; i++) {
+                deque.addLast(ByteBuffer.allocate(4).putInt(i).array());
+                deque.addFirst(ByteBuffer.allocate(4).putInt(-i).array());
+            }
+            assert deque.size() == 200;
+
+            for (int i = 99; i >= 0; i--) {
+                assert ByteBuffer.wrap(deque.removeFirst()).getInt() == -i;
+            }
+            byte[] record = new byte[4];
+            for (int i = 99; i >= 0; i--) {
+                deque.removeLast(record);
+                assert ByteBuffer.wrap(record).getInt() == i;
+            }
+            assert deque.isEmpty();
+        }
+        finally {
+            Files.deleteIfExists(spillFile);
+        }
+    }
+}
@@ -1,18 +1,44 @@
 import edu.princeton.cs.algs4.StdIn;
 import edu.princeton.cs.algs4.StdOut;
+import edu.princeton.cs.algs4.StdRandom;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Iterator;
 
 public class Permutation {
 
+    private static final String STREAM_OPTION = "--stream";
+
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    /**
+     * Prints k random strings read from standard input.
+     * With the --stream option the strings are sampled in a single pass
+     * with reservoir sampling, so only k strings are kept in memory.
+     * @param args the number of strings k, optionally followed by --stream
+     */
     public static void main(String[] args) {
+        checkSample();
+
         if (args.length < 1) {
             throw new IllegalArgumentException("Wrong arguments count!");
         }
 
+        final int k = Integer.parseInt(args[0]);
+        if (args.length > 1 && STREAM_OPTION.equals(args[1])) {
+            printStreaming(k);
+            return;
+        }
+
         RandomizedQueue<String> queue = new RandomizedQueue<>();
 
-        final int k = Integer.parseInt(args[0]);
         while (!StdIn.isEmpty()) {
             queue.enqueue(StdIn.readString());
         }
@@ -22,4 +48,186 @@ public class Permutation {
             StdOut.println(iterator.next());
         }
     }
+
+    private static void printStreaming(int k) {
+        String[] reservoir = sample(Channels.newChannel(System.in), k);
+        if (reservoir.length < k) {
+            throw new IllegalArgumentException("Not enough strings on standard input!");
+        }
+
+        // The reservoir holds a uniform subset, shuffle it for a uniform order
+        StdRandom.shuffle(reservoir);
+        for (String item : reservoir) {
+            StdOut.println(item);
+        }
+    }
+
+    /**
+     * Returns a uniformly random subset of at most k tokens using reservoir sampling
+     * (Algorithm L). Instead of drawing a random number for every token the number of
+     * tokens to skip before the next replacement is computed, so the skipped tokens
+     * are never decoded into strings.
+     * @param channel the source of whitespace separated tokens
+     * @param k the size of the subset
+     * @return the sampled tokens, fewer than k if the input is shorter
+     */
+    static String[] sample(ReadableByteChannel channel, int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative!");
+        }
+
+        TokenReader reader = new TokenReader(channel);
+
+        String[] reservoir = new String[k];
+        int filled = 0;
+        while (filled < k) {
+            String token = reader.read();
+            if (token == null) {
+                return Arrays.copyOf(reservoir, filled);
+            }
+            reservoir[filled++] = token;
+        }
+        if (k == 0) {
+            return reservoir;
+        }
+
+        double w = Math.exp(Math.log(randomOpen()) / k);
+        while (true) {
+            // log1p keeps the precision of log(1 - w) when w is tiny, after many replacements of a large reservoir
+            long skip = (long) Math.floor(Math.log(randomOpen()) / Math.log1p(-w));
+            if (!reader.skip(skip)) {
+                return reservoir;
+            }
+            String token = reader.read();
+            if (token == null) {
+                return reservoir;
+            }
+            reservoir[StdRandom.uniform(k)] = token;
+            w *= Math.exp(Math.log(randomOpen()) / k);
+        }
+    }
+
+    /**
+     * Checks that the sample holds every token with the same probability
+     */
+    private static void checkSample() {
+        byte[] input = "a b c d e f g h i j".getBytes(StandardCharsets.UTF_8);
+        assert sample(Channels.newChannel(new ByteArrayInputStream(input)), 0).length == 0;
+        assert sample(Channels.newChannel(new ByteArrayInputStream(input)), 20).length == 10;
+
+        int[] counts = new int[10];
+        for (int i = 0; i < 5000; i++) {
+            String[] reservoir = sample(Channels.newChannel(new ByteArrayInputStream(input)), 3);
+            assert reservoir.length == 3;
+            for (String token : reservoir) {
+                counts[token.charAt(0) - 'a']++;
+            }
+        }
+        // Every token is expected 1500 times
+        for (int count : counts) {
+            assert count > 1350 && count < 1650 : Arrays.toString(counts);
+        }
+    }
+
+    /**
+     * Returns a random number in (0, 1]
+     */
+    private static double randomOpen() {
+        return 1.0 - StdRandom.uniform();
+    }
+
+    /**
+     * Reads whitespace separated tokens from a channel through a large buffer.
+     */
+    private static class TokenReader {
+
+        private final ReadableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        private byte[] token = new byte[64];
+        private boolean eof = false;
+
+        TokenReader(ReadableByteChannel channel) {
+            this.channel = channel;
+            this.buffer.flip();
+        }
+
+        /**
+         * Reads the next token
+         * @return the token or null if there are no more tokens
+         */
+        String read() {
+            if (!skipWhitespace()) {
+                return null;
+            }
+            int length = 0;
+            while (hasByte()) {
+                byte b = this.buffer.get(this.buffer.position());
+                if (isWhitespace(b)) {
+                    break;
+                }
+                if (length == this.token.length) {
+                    this.token = Arrays.copyOf(this.token, 2 * length);
+                }
+                this.token[length++] = b;
+                this.buffer.get();
+            }
+            return new String(this.token, 0, length, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Skips the given number of tokens without decoding them
+         * @param count the number of tokens to skip
+         * @return false if the input ended before all tokens were skipped
+         */
+        boolean skip(long count) {
+            for (long i = 0; i < count; i++) {
+                if (!skipWhitespace()) {
+                    return false;
+                }
+                while (hasByte() && !isWhitespace(this.buffer.get(this.buffer.position()))) {
+                    this.buffer.get();
+                }
+            }
+            return true;
+        }
+
+        private boolean skipWhitespace() {
+            while (hasByte()) {
+                if (!isWhitespace(this.buffer.get(this.buffer.position()))) {
+                    return true;
+                }
+                this.buffer.get();
+            }
+            return false;
+        }
+
+        private boolean hasByte() {
+            if (this.buffer.hasRemaining()) {
+                return true;
+            }
+            if (this.eof) {
+                return false;
+            }
+            try {
+                this.buffer.clear();
+                int read;
+                do {
+                    read = this.channel.read(this.buffer);
+                } while (read == 0);
+                this.buffer.flip();
+                if (read < 0) {
+                    this.eof = true;
+                    return false;
+                }
+                return true;
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private static boolean isWhitespace(byte b) {
+            return b == ' ' || b == '\n' || b == '\r' || b == '\t' || b == '\f' || b == 0x0B;
+        }
+    }
 }
@@ -1,25 +1,108 @@
-import edu.princeton.cs.algs4.StdRandom;
-
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.NoSuchElementException;
-
+import java.util.SplittableRandom;
+import java.util.Spliterator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.random.RandomGenerator;
+import java.util.stream.StreamSupport;
+
+/**
+ * Randomized queue which removes a uniformly random item.
+ * The iterators and forEach visit the items in random order. The spliterator, which the streams use,
+ * visits them in the order of the array and not in random order, so that it can split in O(1).
+ * Iterators and spliterators fail fast with a {@link ConcurrentModificationException}
+ * when the queue is modified while they are in use.
+ */
 public class RandomizedQueue<Item> implements Iterable<Item> {
 
+    private static final int DEFAULT_INITIAL_CAPACITY = 1;
+
+    private static final double DEFAULT_GROWTH_FACTOR = 2.0;
+
+    private static final int DEFAULT_MIN_CAPACITY = 1;
+
+    private static final int DEFAULT_SHRINK_DIVISOR = 4;
+
+    // An iterator shuffles lazily until it has returned 1/EAGER_FRACTION of the items,
+    // then it shuffles the rest at once in a dense array
+    private static final int EAGER_FRACTION = 64;
+
     private int size = 0;
 
-    private int capacity = 1;
+    private int capacity;
+
+    private final double growthFactor;
+
+    private final int minCapacity;
+
+    private final int shrinkDivisor;
 
     private Object[] items;
 
+    // Array index of the first item, items occupy size slots from head wrapping around the end
     private int head = 0;
 
+    // Array index of the slot after the last item
     private int tail = 0;
 
+    // Number of enqueues and dequeues, so iterators can detect modification
+    private int modCount = 0;
+
+    // The random generator, or null to use the thread-local generator of the thread drawing a number
+    private final RandomGenerator random;
+
     /**
-     * Construct an empty randomized queue
+     * Construct an empty randomized queue which draws from the thread-local random generator
+     * of the thread calling each operation
      */
     public RandomizedQueue() {
-        items = new Object[capacity];
+        this(null);
+    }
+
+    /**
+     * Construct an empty randomized queue which uses the given random generator.
+     * A seeded generator makes the order of the items reproducible.
+     * @param random the random generator, or null for the thread-local generator of the calling thread
+     */
+    public RandomizedQueue(RandomGenerator random) {
+        this(random, DEFAULT_INITIAL_CAPACITY, DEFAULT_GROWTH_FACTOR, DEFAULT_MIN_CAPACITY, DEFAULT_SHRINK_DIVISOR);
+    }
+
+    /**
+     * Construct an empty randomized queue with the given resizing policy.
+     * The array grows by the growth factor when it is full and shrinks by the growth factor
+     * when it is less than 1/shrinkDivisor full, but never below the minimum capacity.
+     * The gap between the growth factor and the shrink divisor keeps a queue whose size
+     * oscillates around a boundary from resizing on every operation.
+     * @param random the random generator, or null for the thread-local generator of the calling thread
+     * @param initialCapacity the initial capacity
+     * @param growthFactor the growth factor, greater than 1
+     * @param minCapacity the capacity the array never shrinks below
+     * @param shrinkDivisor the array shrinks when size is less than capacity / shrinkDivisor,
+     *                      must be greater than the growth factor
+     */
+    public RandomizedQueue(RandomGenerator random, int initialCapacity, double growthFactor,
+                           int minCapacity, int shrinkDivisor) {
+        if (initialCapacity <= 0 || minCapacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be greater than 0!");
+        }
+        if (!(growthFactor > 1)) {
+            throw new IllegalArgumentException("Growth factor must be greater than 1!");
+        }
+        if (shrinkDivisor <= growthFactor) {
+            throw new IllegalArgumentException("Shrink divisor must be greater than the growth factor!");
+        }
+
+        this.random = random;
+        this.growthFactor = growthFactor;
+        this.minCapacity = minCapacity;
+        this.shrinkDivisor = shrinkDivisor;
+        this.capacity = Math.max(initialCapacity, minCapacity);
+        this.items = new Object[this.capacity];
     }
 
     /**
@@ -47,12 +130,14 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
 
         // Grow the array when it is full
         if (this.size == this.capacity) {
-            resize(2 * this.capacity);
+            long grown = (long) Math.ceil(this.capacity * this.growthFactor);
+            resize((int) Math.min(Integer.MAX_VALUE - 8, Math.max(grown, this.capacity + 1L)));
         }
 
-        this.items[this.tail % this.capacity] = item;
-        this.tail++;
+        this.items[this.tail] = item;
+        this.tail = next(this.tail);
         this.size++;
+        this.modCount++;
     }
 
     /**
@@ -62,20 +147,25 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
     public Item dequeue() {
         checkNotEmpty();
 
-        int index = randomItemIndex() % this.capacity;
+        int index = randomItemIndex();
         Item item = (Item) this.items[index];
 
-        // Swap selected item and hea item
-        int headIndex = this.head % this.capacity;
-        this.items[index] = this.items[headIndex];
-        this.items[headIndex] = null;
+        // Swap selected item and head item
+        this.items[index] = this.items[this.head];
+        this.items[this.head] = null;
 
-        this.head++;
+        this.head = next(this.head);
         this.size--;
-
-        // Shrink the array when it is one-quarter full
-        if (this.size > 0 && this.size == this.capacity / 4) {
-            resize(this.capacity / 2);
+        this.modCount++;
+
+        // Shrink the array when it is less than 1/shrinkDivisor full,
+        // unless rounding up leaves the capacity as it is, as it does for small arrays and factors
+        if (this.capacity > this.minCapacity && this.size < this.capacity / this.shrinkDivisor) {
+            int shrunk = (int) Math.ceil(this.capacity / this.growthFactor);
+            int newCapacity = Math.max(this.minCapacity, Math.max(shrunk, this.size));
+            if (newCapacity < this.capacity) {
+                resize(newCapacity);
+            }
         }
 
         return item;
@@ -88,38 +178,134 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
     public Item sample() {
         checkNotEmpty();
 
-        int index = randomItemIndex();
-        return (Item) this.items[index % this.capacity];
+        return (Item) this.items[randomItemIndex()];
     }
 
     /**
-     * Returns the random item index between head and tail
+     * Returns the array index of a random item between head and tail
      * @return
      */
     private int randomItemIndex() {
-        return StdRandom.uniform(this.head, this.tail);
+        return (this.head + random().nextInt(this.size)) % this.capacity;
+    }
+
+    /**
+     * Returns the random generator of the queue or the thread-local one of the current thread.
+     * ThreadLocalRandom.current() must be called by the thread using it, so it is never stored.
+     * @return the random generator
+     */
+    private RandomGenerator random() {
+        return this.random != null ? this.random : ThreadLocalRandom.current();
+    }
+
+    private int next(int index) {
+        return index + 1 == this.capacity ? 0 : index + 1;
     }
 
     private void resize(int newCapacity) {
         Object[] newItems = new Object[newCapacity];
-        for (int i = 0; i < this.size; i++) {
-            newItems[i] = this.items[(this.head + i) % this.capacity];
-        }
+
+        // Copy the two contiguous parts of the ring, from head to the end of the array and the wrapped rest
+        int firstPart = Math.min(this.size, this.capacity - this.head);
+        System.arraycopy(this.items, this.head, newItems, 0, firstPart);
+        System.arraycopy(this.items, 0, newItems, firstPart, this.size - firstPart);
 
         this.capacity = newCapacity;
         this.items = newItems;
         this.head = 0;
-        this.tail = this.size;
+        this.tail = this.size == newCapacity ? 0 : this.size;
     }
 
     /**
-     * Return an independent iterator over items in random order
+     * Return an independent iterator over items in random order.
+     * The iterator throws a {@link ConcurrentModificationException} if the queue is modified.
      * @return
      */
     public Iterator<Item> iterator() {
         return new RandomizedQueueIterator();
     }
 
+    /**
+     * Return an iterator over items in random order, recycling the given iterator when possible.
+     * An iterator previously returned by this method for this queue is reset and returned
+     * without allocation if the queue size has not changed.
+     * @param reuse the iterator to recycle or null
+     * @return the iterator
+     */
+    public Iterator<Item> iterator(Iterator<Item> reuse) {
+        if (reuse instanceof RandomizedQueue.RandomizedQueueIterator) {
+            RandomizedQueueIterator iterator = (RandomizedQueueIterator) reuse;
+            if (iterator.queue() == this && iterator.recyclable && iterator.size == this.size) {
+                iterator.reset();
+                return iterator;
+            }
+        }
+
+        int[] permutation = new int[this.size];
+        for (int i = 0; i < this.size; i++) {
+            permutation[i] = i;
+        }
+        return new RandomizedQueueIterator(permutation);
+    }
+
+    /**
+     * Perform the action for each item in random order without allocation.
+     * The items are visited with a random start and a random stride coprime to the size,
+     * so not every order is possible, use {@link #iterator()} for a uniformly random order.
+     * @param action the action
+     */
+    @Override
+    public void forEach(Consumer<? super Item> action) {
+        if (action == null) {
+            throw new IllegalArgumentException();
+        }
+        if (this.size == 0) {
+            return;
+        }
+
+        RandomGenerator random = random();
+        int offset = random.nextInt(this.size);
+        int stride = 1;
+        if (this.size > 2) {
+            do {
+                stride = random.nextInt(1, this.size);
+            } while (gcd(stride, this.size) != 1);
+        }
+
+        int size = this.size;
+        int expectedModCount = this.modCount;
+        for (int i = 0; i < size && this.modCount == expectedModCount; i++) {
+            action.accept((Item) this.items[(this.head + offset) % this.capacity]);
+            offset += stride;
+            if (offset >= size) {
+                offset -= size;
+            }
+        }
+        if (this.modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    /**
+     * Construct new {@link Spliterator} over the queue which splits index ranges in balanced halves.
+     * Items are encountered in the order of the array, which is not random,
+     * use {@link #iterator()} for a random order.
+     * @return the spliterator
+     */
+    @Override
+    public Spliterator<Item> spliterator() {
+        return new RandomizedQueueSpliterator(0, this.size, this.modCount);
+    }
+
     private void checkItemNotNull(Item item) {
         if (item == null) {
             throw new IllegalArgumentException();
@@ -132,21 +318,83 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
         }
     }
 
+    /**
+     * Iterator which shuffles lazily with an incremental Fisher-Yates shuffle.
+     * A fresh iterator remembers only the swapped positions in a sparse map, so
+     * construction is O(1) and reading k items costs O(k) time and memory.
+     * A reusable iterator keeps the positions in a dense permutation buffer instead.
+     * Shuffling any permutation gives a uniformly random one, so the buffer is reused
+     * as it is without resetting it to the identity.
+     * Once 1/EAGER_FRACTION of the items are returned the remaining positions are shuffled
+     * at once in a dense array and then read in order, which is several times faster than
+     * swapping one position per item for a full iteration.
+     * The iterator fails with a {@link ConcurrentModificationException} if the queue is modified.
+     */
     private class RandomizedQueueIterator implements Iterator<Item> {
 
-        private final Object[] items;
+        private Map<Integer, Integer> swaps;
+        private int[] permutation;
         private final int size;
         private int index;
+        private int expectedModCount;
+
+        // True when the positions from index on are already shuffled
+        private boolean shuffled;
+
+        // Only a permutation holding every offset can be shuffled again
+        private final boolean recyclable;
 
         public RandomizedQueueIterator() {
             this.size = RandomizedQueue.this.size;
-            this.items = new Object[this.size];
+            this.swaps = new HashMap<>();
+            this.permutation = null;
+            this.recyclable = false;
+            reset();
+        }
+
+        public RandomizedQueueIterator(int[] permutation) {
+            this.size = permutation.length;
+            this.swaps = null;
+            this.permutation = permutation;
+            this.recyclable = true;
+            reset();
+        }
+
+        private RandomizedQueue<Item> queue() {
+            return RandomizedQueue.this;
+        }
+
+        private void reset() {
             this.index = 0;
+            this.shuffled = false;
+            this.expectedModCount = modCount;
+        }
 
-            int[] permutation = StdRandom.permutation(this.size);
-            for (int i = 0; i < this.size; i++) {
-                this.items[i] = RandomizedQueue.this.items[(head + permutation[i]) % capacity];
+        /**
+         * Shuffles the positions from index on at once, building the dense array from the swap map if needed
+         */
+        private void shuffleRemaining() {
+            if (this.permutation == null) {
+                int[] permutation = new int[this.size];
+                for (int i = this.index; i < this.size; i++) {
+                    permutation[i] = i;
+                }
+                for (Map.Entry<Integer, Integer> swap : this.swaps.entrySet()) {
+                    permutation[swap.getKey()] = swap.getValue();
+                }
+                this.permutation = permutation;
+                this.swaps = null;
             }
+
+            RandomGenerator random = random();
+            int[] permutation = this.permutation;
+            for (int i = this.size - 1; i > this.index; i--) {
+                int swap = random.nextInt(this.index, i + 1);
+                int offset = permutation[swap];
+                permutation[swap] = permutation[i];
+                permutation[i] = offset;
+            }
+            this.shuffled = true;
         }
 
         @Override
@@ -161,16 +409,193 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
 
         @Override
         public Item next() {
+            if (modCount != this.expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
             if (!hasNext()) {
                 throw new NoSuchElementException();
             }
-            Item item = (Item) this.items[this.index];
+            if (!this.shuffled && this.index >= this.size / EAGER_FRACTION) {
+                shuffleRemaining();
+            }
+
+            int offset;
+            if (this.shuffled) {
+                offset = this.permutation[this.index];
+            }
+            else {
+                // Swap the position at index with a random position at or after it
+                int swap = random().nextInt(this.index, this.size);
+                if (this.permutation != null) {
+                    offset = this.permutation[swap];
+                    this.permutation[swap] = this.permutation[this.index];
+                    this.permutation[this.index] = offset;
+                }
+                else {
+                    // Positions which were never touched are mapped to themselves
+                    offset = this.swaps.getOrDefault(swap, swap);
+                    this.swaps.put(swap, this.swaps.getOrDefault(this.index, this.index));
+                    this.swaps.remove(this.index);
+                }
+            }
             this.index++;
-            return item;
+
+            return (Item) items[(head + offset) % capacity];
         }
     }
 
+    /**
+     * Spliterator over a range of item offsets from head
+     */
+    private class RandomizedQueueSpliterator implements Spliterator<Item> {
+
+        private int origin;
+        private final int fence;
+        private final int expectedModCount;
+
+        private RandomizedQueueSpliterator(int origin, int fence, int expectedModCount) {
+            this.origin = origin;
+            this.fence = fence;
+            this.expectedModCount = expectedModCount;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Item> action) {
+            checkNotModified();
+            if (this.origin >= this.fence) {
+                return false;
+            }
+            action.accept((Item) items[(head + this.origin) % capacity]);
+            this.origin++;
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Item> action) {
+            for (; this.origin < this.fence && modCount == this.expectedModCount; this.origin++) {
+                action.accept((Item) items[(head + this.origin) % capacity]);
+            }
+            checkNotModified();
+        }
+
+        @Override
+        public Spliterator<Item> trySplit() {
+            int middle = (this.origin + this.fence) >>> 1;
+            if (middle <= this.origin) {
+                return null;
+            }
+            Spliterator<Item> prefix = new RandomizedQueueSpliterator(this.origin, middle, this.expectedModCount);
+            this.origin = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return this.fence - this.origin;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.NONNULL;
+        }
+
+        private void checkNotModified() {
+            if (modCount != this.expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    /**
+     * Checks the seeded generators, the spliterator, forEach and the reusable iterator
+     */
+    private static void checkExtensions() {
+        // Queues with equally seeded generators produce the same order
+        RandomizedQueue<Integer> seeded1 = new RandomizedQueue<>(new SplittableRandom(42));
+        RandomizedQueue<Integer> seeded2 = new RandomizedQueue<>(new SplittableRandom(42));
+        for (int i = 0; i < 100; i++) {
+            seeded1.enqueue(i);
+            seeded2.enqueue(i);
+        }
+        while (!seeded1.isEmpty()) {
+            assert seeded1.dequeue().equals(seeded2.dequeue());
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            seeded1.enqueue(i);
+        }
+        long sum = StreamSupport.stream(seeded1.spliterator(), true).mapToLong(Integer::longValue).sum();
+        assert sum == 999 * 1000 / 2;
+
+        long[] forEachSum = new long[1];
+        seeded1.forEach(item -> forEachSum[0] += item);
+        assert forEachSum[0] == sum;
+
+        Iterator<Integer> reusable = seeded1.iterator(null);
+        for (int pass = 0; pass < 3; pass++) {
+            long iteratorSum = 0;
+            while (reusable.hasNext()) {
+                iteratorSum += reusable.next();
+            }
+            assert iteratorSum == sum;
+            Iterator<Integer> recycled = seeded1.iterator(reusable);
+            assert recycled == reusable;
+        }
+
+        // A shrink which would not reduce the capacity must not copy the array
+        RandomizedQueue<Integer> small = new RandomizedQueue<>(null, 10, 1.1, 1, 2);
+        for (int i = 0; i < 4; i++) {
+            small.enqueue(i);
+        }
+        Object[] items = small.items;
+        for (int i = 0; i < 1000; i++) {
+            small.enqueue(i);
+            small.dequeue();
+        }
+        assert small.items == items;
+        assert small.capacity == 10;
+
+        // Iterators fail fast when the queue is modified
+        Iterator<Integer> modified = seeded1.iterator();
+        modified.next();
+        seeded1.dequeue();
+        try {
+            modified.next();
+            assert false;
+        }
+        catch (ConcurrentModificationException e) {
+            // expected
+        }
+
+        // Spliterators fail fast too
+        Spliterator<Integer> spliterator = seeded1.spliterator();
+        assert spliterator.tryAdvance(item -> { });
+        seeded1.enqueue(0);
+        try {
+            spliterator.tryAdvance(item -> { });
+            assert false;
+        }
+        catch (ConcurrentModificationException e) {
+            // expected
+        }
+
+        // A full iteration past the switch to the dense permutation visits every item once
+        for (int i = 0; i < 1000; i++) {
+            seeded2.enqueue(i);
+        }
+        boolean[] seen = new boolean[1000];
+        int visited = 0;
+        for (Integer item : seeded2) {
+            assert !seen[item];
+            seen[item] = true;
+            visited++;
+        }
+        assert visited == 1000;
+    }
+
     public static void main(String[] args) {
+        checkExtensions();
+
         RandomizedQueue<String> queue = new RandomizedQueue<>();
         assert queue.isEmpty();
         assert queue.size() == 0;
@@ -0,0 +1,340 @@
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Randomized queue which picks items in proportion to their weights.
+ * The weights are kept in a Fenwick tree, so sample, enqueue and dequeue take O(log n).
+ * Removing a weight subtracts it from the sums, which leaves a rounding error of the size of
+ * the removed weight behind. The tree is rebuilt in O(n) once the weight removed since the last
+ * rebuild is more than the remaining weight, so the small weights left after removing a large one
+ * are summed exactly again. When the weights are of similar size that happens after about every
+ * n / 2 removals, so dequeue takes amortized O(log n).
+ */
+public class WeightedRandomizedQueue<Item> {
+
+    private int size = 0;
+
+    private Object[] items;
+
+    private double[] weights;
+
+    // Fenwick tree over the weights, tree[i] is the sum of weights in (i - lowbit(i), i]
+    private double[] tree;
+
+    // Weight removed since the tree was last built
+    private double removedWeight = 0;
+
+    // The random generator, or null to use the thread-local generator of the thread drawing a number
+    private final RandomGenerator random;
+
+    /**
+     * Construct an empty weighted randomized queue which draws from the thread-local random generator
+     * of the thread calling each operation
+     */
+    public WeightedRandomizedQueue() {
+        this((RandomGenerator) null);
+    }
+
+    /**
+     * Construct an empty weighted randomized queue which uses the given random generator
+     * @param random the random generator, or null for the thread-local generator of the calling thread
+     */
+    public WeightedRandomizedQueue(RandomGenerator random) {
+        this.random = random;
+        this.items = new Object[1];
+        this.weights = new double[1];
+        this.tree = new double[2];
+    }
+
+    /**
+     * Construct a weighted randomized queue holding the given items in O(n)
+     * @param items the items
+     * @param weights the weights of the items, weights[i] is the weight of items[i]
+     */
+    public WeightedRandomizedQueue(Item[] items, double[] weights) {
+        this(items, weights, null);
+    }
+
+    /**
+     * Construct a weighted randomized queue holding the given items in O(n)
+     * which uses the given random generator
+     * @param items the items
+     * @param weights the weights of the items, weights[i] is the weight of items[i]
+     * @param random the random generator, or null for the thread-local generator of the calling thread
+     */
+    public WeightedRandomizedQueue(Item[] items, double[] weights, RandomGenerator random) {
+        if (items == null || weights == null || items.length != weights.length) {
+            throw new IllegalArgumentException();
+        }
+
+        this.random = random;
+
+        int capacity = Math.max(1, items.length);
+        this.items = new Object[capacity];
+        this.weights = new double[capacity];
+        for (int i = 0; i < items.length; i++) {
+            checkItemNotNull(items[i]);
+            checkWeight(weights[i]);
+            this.items[i] = items[i];
+            this.weights[i] = weights[i];
+        }
+        this.size = items.length;
+        buildTree(capacity);
+    }
+
+    /**
+     * Return true if the queue is empty
+     * @return true if the queue is empty
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Return the number of items on the queue
+     * @return the number of items on the queue
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Return the sum of weights of all items on the queue
+     * @return the total weight
+     */
+    public double totalWeight() {
+        return prefixSum(this.size);
+    }
+
+    /**
+     * Add the item with the given weight
+     * @param item the Item
+     * @param weight the weight, must be positive and finite
+     */
+    public void enqueue(Item item, double weight) {
+        checkItemNotNull(item);
+        checkWeight(weight);
+
+        // Grow the array when it is full
+        if (this.size == this.items.length) {
+            resize(2 * this.items.length);
+        }
+
+        this.items[this.size] = item;
+        this.weights[this.size] = weight;
+        add(this.size, weight);
+        this.size++;
+    }
+
+    /**
+     * Remove and return a random item, chosen with probability proportional to its weight
+     * @return the removed item
+     */
+    public Item dequeue() {
+        checkNotEmpty();
+
+        int index = randomItemIndex();
+        Item item = (Item) this.items[index];
+        double weight = this.weights[index];
+
+        // Move the last item into the freed slot
+        int last = this.size - 1;
+        double lastWeight = this.weights[last];
+        this.items[index] = this.items[last];
+        this.weights[index] = lastWeight;
+        this.items[last] = null;
+        this.weights[last] = 0;
+        if (index != last) {
+            add(index, lastWeight - weight);
+        }
+        add(last, -lastWeight);
+        this.size--;
+        this.removedWeight += weight;
+
+        // Shrink the array when it is one-quarter full, which rebuilds the tree,
+        // otherwise rebuild it when the rounding error of the removed weight may matter
+        if (this.size > 0 && this.size == this.items.length / 4) {
+            resize(this.items.length / 2);
+        }
+        else if (this.removedWeight > totalWeight()) {
+            buildTree(this.items.length);
+        }
+
+        return item;
+    }
+
+    /**
+     * Return (but do not remove) a random item, chosen with probability proportional to its weight
+     * @return the sampled item
+     */
+    public Item sample() {
+        checkNotEmpty();
+
+        return (Item) this.items[randomItemIndex()];
+    }
+
+    /**
+     * Returns a random item index, each index is chosen with probability proportional to its weight
+     * @return the item index
+     */
+    private int randomItemIndex() {
+        double target = random().nextDouble() * totalWeight();
+
+        // Descend the tree looking for the first index whose prefix sum exceeds the target
+        int capacity = this.tree.length - 1;
+        int index = 0;
+        for (int step = Integer.highestOneBit(capacity); step > 0; step >>= 1) {
+            int next = index + step;
+            if (next <= capacity && this.tree[next] <= target) {
+                index = next;
+                target -= this.tree[next];
+            }
+        }
+
+        // Guard against rounding errors pointing past the last item
+        return Math.min(index, this.size - 1);
+    }
+
+    /**
+     * Returns the random generator of the queue or the thread-local one of the current thread
+     * @return the random generator
+     */
+    private RandomGenerator random() {
+        return this.random != null ? this.random : ThreadLocalRandom.current();
+    }
+
+    /**
+     * Adds the delta to the tree nodes covering the index
+     */
+    private void add(int index, double delta) {
+        for (int i = index + 1; i < this.tree.length; i += i & -i) {
+            this.tree[i] += delta;
+        }
+    }
+
+    private double prefixSum(int count) {
+        double sum = 0;
+        for (int i = count; i > 0; i -= i & -i) {
+            sum += this.tree[i];
+        }
+        return sum;
+    }
+
+    private void resize(int newCapacity) {
+        Object[] newItems = new Object[newCapacity];
+        double[] newWeights = new double[newCapacity];
+        System.arraycopy(this.items, 0, newItems, 0, this.size);
+        System.arraycopy(this.weights, 0, newWeights, 0, this.size);
+
+        this.items = newItems;
+        this.weights = newWeights;
+        buildTree(newCapacity);
+    }
+
+    /**
+     * Builds the Fenwick tree from the weights in O(n)
+     */
+    private void buildTree(int capacity) {
+        this.tree = new double[capacity + 1];
+        this.removedWeight = 0;
+        for (int i = 1; i <= capacity; i++) {
+            this.tree[i] += this.weights[i - 1];
+            int parent = i + (i & -i);
+            if (parent <= capacity) {
+                this.tree[parent] += this.tree[i];
+            }
+        }
+    }
+
+    private void checkItemNotNull(Item item) {
+        if (item == null) {
+            throw new IllegalArgumentException();
+        }
+    }
+
+    private void checkWeight(double weight) {
+        if (!(weight > 0) || Double.isInfinite(weight)) {
+            throw new IllegalArgumentException("Weight must be positive and finite!");
+        }
+    }
+
+    private void checkNotEmpty() {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+    }
+
+    public static void main(String[] args) {
+        WeightedRandomizedQueue<String> queue = new WeightedRandomizedQueue<>();
+        assert queue.isEmpty();
+        assert queue.size() == 0;
+        queue.enqueue("A", 1);
+        queue.enqueue("B", 2);
+        queue.enqueue("C", 7);
+        assert !queue.isEmpty();
+        assert queue.size() == 3;
+        assert queue.totalWeight() == 10;
+
+        int countC = 0;
+        for (int i = 0; i < 10000; i++) {
+            if ("C".equals(queue.sample())) {
+                countC++;
+            }
+        }
+        System.out.println("C sampled: " + countC + " of 10000");
+        assert countC > 6500 && countC < 7500;
+
+        System.out.println(queue.dequeue());
+        System.out.println(queue.dequeue());
+        System.out.println(queue.dequeue());
+        assert queue.isEmpty();
+
+        WeightedRandomizedQueue<String> built = new WeightedRandomizedQueue<>(
+                new String[] { "X", "Y", "Z" }, new double[] { 1, 1, 2 });
+        assert built.size() == 3;
+        assert built.totalWeight() == 4;
+        built.dequeue();
+        assert built.size() == 2;
+
+        // Removing a huge weight must not lose the small ones
+        WeightedRandomizedQueue<String> mixed = new WeightedRandomizedQueue<>();
+        mixed.enqueue("big", 1e17);
+        mixed.enqueue("a", 1);
+        mixed.enqueue("b", 1);
+        mixed.enqueue("c", 1);
+        assert "big".equals(mixed.dequeue());
+        assert mixed.totalWeight() == 3;
+        int countA = 0;
+        int countSmallC = 0;
+        for (int i = 0; i < 30000; i++) {
+            String item = mixed.sample();
+            if ("a".equals(item)) {
+                countA++;
+            }
+            else if ("c".equals(item)) {
+                countSmallC++;
+            }
+        }
+        System.out.println("a sampled: " + countA + ", c sampled: " + countSmallC + " of 30000");
+        assert countA > 9000 && countA < 11000;
+        assert countSmallC > 9000 && countSmallC < 11000;
+
+        // The same seed gives the same order, and the sums stay exact while items are removed
+        WeightedRandomizedQueue<Integer> first = new WeightedRandomizedQueue<>(new SplittableRandom(7));
+        WeightedRandomizedQueue<Integer> second = new WeightedRandomizedQueue<>(new SplittableRandom(7));
+        double remaining = 0;
+        for (int i = 0; i < 1000; i++) {
+            first.enqueue(i, i + 1);
+            second.enqueue(i, i + 1);
+            remaining += i + 1;
+        }
+        for (int i = 0; i < 900; i++) {
+            int item = first.dequeue();
+            assert item == second.dequeue();
+            remaining -= item + 1;
+            assert first.totalWeight() == remaining;
+        }
+    }
+}
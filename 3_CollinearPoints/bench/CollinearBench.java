@@ -0,0 +1,171 @@
+/******************************************************************************
+ *  Compilation:  javac -cp algs4.jar:../src CollinearBench.java
+ *  Execution:    java -Xmx16g -cp algs4.jar:../src:. CollinearBench [engines] [distributions] [sizes] [runs]
+ *  Dependencies: PointCloudGenerator.java and the collinear engines
+ *
+ *  Times the collinear engines on generated point clouds without drawing and prints,
+ *  for every engine, distribution and size, the best time of the runs, the bytes allocated
+ *  by the best run and the number of segments found. The arguments are comma separated lists,
+ *  for example
+ *
+ *  % java CollinearBench fast,hash uniform,grid 1000,10000 3
+ *
+ *  By default all engines run on all distributions at sizes 1000 to 1000000, but only the
+ *  randomized engine runs at every size. Sizes above the limit of an engine are skipped:
+ *  1000 for brute, 10000 for near, which is about 5 times slower than fast, 10000 for
+ *  incremental, which keeps all O(n^2) lines in memory, about 6 GB at that size,
+ *  and 100000 for fast, parallel, hash and packed. Near runs with 4 points and a tolerance
+ *  of 1e-9 radians, so it finds about the same segments as fast.
+ *
+ ******************************************************************************/
+
+import edu.princeton.cs.algs4.StdOut;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+public class CollinearBench {
+
+    private static final String ENGINES = "brute,fast,parallel,hash,packed,near,incremental,randomized";
+
+    private static final String DISTRIBUTIONS = "uniform,grid,lines,adversarial";
+
+    private static final String SIZES = "1000,10000,100000,1000000";
+
+    // Number of lines asked from the randomized engine
+    private static final int RANDOMIZED_LINES = 10;
+
+    // Angular tolerance of the near engine in radians
+    private static final double NEAR_EPSILON = 1e-9;
+
+    private static final long SEED = 42;
+
+    /**
+     * Returns the largest size the engine finishes in reasonable time
+     * @param engine the engine name
+     * @return the largest size
+     */
+    static int maxSize(String engine) {
+        switch (engine) {
+            case "brute":
+                return 1000;
+            case "near":
+            case "incremental":
+                return 10000;
+            case "randomized":
+                return Integer.MAX_VALUE;
+            default:
+                return 100000;
+        }
+    }
+
+    /**
+     * Runs the engine on the points and returns the number of segments
+     * @param engine the engine name
+     * @param cloud the points as coordinate arrays
+     * @param points the same points as objects
+     * @return the number of segments
+     */
+    static int run(String engine, PointCloud cloud, Point[] points) {
+        switch (engine) {
+            case "brute":
+                return new BruteCollinearPoints(points).numberOfSegments();
+            case "fast":
+                return new FastCollinearPoints(points).numberOfSegments();
+            case "parallel":
+                return new FastCollinearPoints(points, ForkJoinPool.commonPool()).numberOfSegments();
+            case "hash":
+                return new HashCollinearPoints(points).numberOfSegments();
+            case "packed":
+                return new PackedCollinearPoints(cloud.xs(), cloud.ys()).numberOfSegments();
+            case "near":
+                return new NearCollinearPoints(points, 4, NEAR_EPSILON).numberOfSegments();
+            case "incremental":
+                return incremental(points);
+            case "randomized":
+                return new RandomizedLineFinder(points, RANDOMIZED_LINES).numberOfSegments();
+            default:
+                throw new IllegalArgumentException("Unknown engine " + engine);
+        }
+    }
+
+    /**
+     * Adds the points one at a time to an incremental finder and returns the number of segments
+     */
+    private static int incremental(Point[] points) {
+        IncrementalCollinearPoints finder = new IncrementalCollinearPoints();
+        for (Point point : points) {
+            finder.add(point);
+        }
+        return finder.numberOfSegments();
+    }
+
+    /**
+     * Returns the bytes allocated so far by every live thread, by thread id
+     */
+    private static Map<Long, Long> allocatedBytes() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long[] ids = threads.getAllThreadIds();
+        long[] bytes = threads.getThreadAllocatedBytes(ids);
+        Map<Long, Long> allocated = new HashMap<>();
+        for (int i = 0; i < ids.length; i++) {
+            allocated.put(ids[i], bytes[i]);
+        }
+        return allocated;
+    }
+
+    /**
+     * Returns the bytes allocated between the snapshots, threads started in between count from zero
+     */
+    private static long allocatedSince(Map<Long, Long> before, Map<Long, Long> after) {
+        long total = 0;
+        for (Map.Entry<Long, Long> entry : after.entrySet()) {
+            if (entry.getValue() >= 0) {
+                total += entry.getValue() - before.getOrDefault(entry.getKey(), 0L);
+            }
+        }
+        return total;
+    }
+
+    public static void main(String[] args) {
+        String[] engines = (args.length > 0 ? args[0] : ENGINES).split(",");
+        String[] distributions = (args.length > 1 ? args[1] : DISTRIBUTIONS).split(",");
+        String[] sizes = (args.length > 2 ? args[2] : SIZES).split(",");
+        int runs = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+
+        StdOut.printf("%-12s %-12s %9s %12s %14s %10s%n", "engine", "distribution", "size", "time (ms)", "allocated (MB)", "segments");
+        for (String distribution : distributions) {
+            for (String sizeArgument : sizes) {
+                int size = Integer.parseInt(sizeArgument);
+                PointCloud cloud = PointCloudGenerator.generate(distribution, size, SEED);
+                Point[] points = cloud.toPoints();
+
+                for (String engine : engines) {
+                    if (size > maxSize(engine)) {
+                        StdOut.printf("%-12s %-12s %9d %12s%n", engine, distribution, size, "skipped");
+                        continue;
+                    }
+
+                    long bestTime = Long.MAX_VALUE;
+                    long bestAllocated = 0;
+                    int segments = 0;
+                    for (int i = 0; i < runs; i++) {
+                        Map<Long, Long> before = allocatedBytes();
+                        long start = System.nanoTime();
+                        segments = run(engine, cloud, points);
+                        long time = System.nanoTime() - start;
+                        long allocated = allocatedSince(before, allocatedBytes());
+                        if (time < bestTime) {
+                            bestTime = time;
+                            bestAllocated = allocated;
+                        }
+                    }
+                    StdOut.printf("%-12s %-12s %9d %12.1f %14.1f %10d%n", engine, distribution, size,
+                            bestTime / 1e6, bestAllocated / (1024.0 * 1024.0), segments);
+                }
+            }
+        }
+    }
+}
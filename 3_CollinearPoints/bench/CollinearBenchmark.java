@@ -0,0 +1,165 @@
+/******************************************************************************
+ *  Compilation:  javac -cp jmh-core.jar:jmh-generator-annprocess.jar:algs4.jar:../src CollinearBenchmark.java
+ *  Execution:    java -cp jmh-core.jar:jopt-simple.jar:commons-math3.jar:algs4.jar:../src:. CollinearBenchmark
+ *  Dependencies: PointCloudGenerator.java, CollinearBench.java and the collinear engines, JMH
+ *
+ *  JMH benchmarks of the collinear engines on the generated point clouds.
+ *  Every invocation is one full search, so the benchmarks run in single shot mode.
+ *  Every engine only runs the sizes up to its limit, the same as CollinearBench.maxSize():
+ *  brute 1000, near and incremental 10000, fast, parallel, hash and packed 100000.
+ *  Only the randomized engine runs 1000000 points. Incremental needs about 6 GB at 10000.
+ *
+ ******************************************************************************/
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx16g" })
+public class CollinearBenchmark {
+
+    /**
+     * The generated points, the subclasses choose the sizes
+     */
+    abstract static class Cloud {
+
+        PointCloud cloud;
+
+        Point[] points;
+
+        void load(String distribution, int size) {
+            this.cloud = PointCloudGenerator.generate(distribution, size, 42);
+            this.points = this.cloud.toPoints();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class BruteCloud extends Cloud {
+
+        @Param({ "uniform", "grid", "lines", "adversarial" })
+        private String distribution;
+
+        @Param({ "1000" })
+        private int size;
+
+        @Setup
+        public void setUp() {
+            load(this.distribution, this.size);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class SmallCloud extends Cloud {
+
+        @Param({ "uniform", "grid", "lines", "adversarial" })
+        private String distribution;
+
+        @Param({ "1000", "10000" })
+        private int size;
+
+        @Setup
+        public void setUp() {
+            load(this.distribution, this.size);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class MediumCloud extends Cloud {
+
+        @Param({ "uniform", "grid", "lines", "adversarial" })
+        private String distribution;
+
+        @Param({ "1000", "10000", "100000" })
+        private int size;
+
+        @Setup
+        public void setUp() {
+            load(this.distribution, this.size);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class LargeCloud extends Cloud {
+
+        @Param({ "uniform", "grid", "lines", "adversarial" })
+        private String distribution;
+
+        @Param({ "1000", "10000", "100000", "1000000" })
+        private int size;
+
+        @Setup
+        public void setUp() {
+            load(this.distribution, this.size);
+        }
+    }
+
+    @Benchmark
+    public int brute(BruteCloud points) {
+        return CollinearBench.run("brute", points.cloud, points.points);
+    }
+
+    @Benchmark
+    public int fast(MediumCloud points) {
+        return CollinearBench.run("fast", points.cloud, points.points);
+    }
+
+    @Benchmark
+    public int parallel(MediumCloud points) {
+        return CollinearBench.run("parallel", points.cloud, points.points);
+    }
+
+    @Benchmark
+    public int hash(MediumCloud points) {
+        return CollinearBench.run("hash", points.cloud, points.points);
+    }
+
+    @Benchmark
+    public int packed(MediumCloud points) {
+        return CollinearBench.run("packed", points.cloud, points.points);
+    }
+
+    @Benchmark
+    public int near(SmallCloud points) {
+        return CollinearBench.run("near", points.cloud, points.points);
+    }
+
+    @Benchmark
+    public int incremental(SmallCloud points) {
+        return CollinearBench.run("incremental", points.cloud, points.points);
+    }
+
+    @Benchmark
+    public int randomized(LargeCloud points) {
+        return CollinearBench.run("randomized", points.cloud, points.points);
+    }
+
+    /**
+     * Runs the benchmarks with the GC profiler which reports the allocation per search
+     * @param args the benchmark name filter, all collinear benchmarks by default
+     */
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : CollinearBenchmark.class.getSimpleName();
+        new Runner(new OptionsBuilder()
+                .include(include)
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,171 @@
+/******************************************************************************
+ *  Compilation:  javac -cp algs4.jar:../src PointCloudGenerator.java
+ *  Execution:    java -cp algs4.jar:../src:. PointCloudGenerator uniform 100000 points.bin
+ *  Dependencies: PointCloud.java
+ *
+ *  Generates point clouds for the collinear benchmarks, all coordinates distinct:
+ *    uniform      random points in [0, 32768) x [0, 32768)
+ *    grid         a square grid, the worst case with many collinear sets
+ *    lines        points on a few long random lines
+ *    adversarial  pairs of lines of 4 points through the same point whose slopes
+ *                 differ by less than the precision of a double
+ *
+ ******************************************************************************/
+
+import java.math.BigInteger;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+public class PointCloudGenerator {
+
+    private static final int RANGE = 32768;
+
+    private static final int LINES = 16;
+
+    /**
+     * Generates n points of the distribution
+     * @param distribution uniform, grid, lines or adversarial
+     * @param n the number of points
+     * @param seed the random seed
+     * @return the points
+     */
+    public static PointCloud generate(String distribution, int n, long seed) {
+        if (n < 0) {
+            throw new IllegalArgumentException();
+        }
+        switch (distribution) {
+            case "uniform":
+                return uniform(n, seed);
+            case "grid":
+                return grid(n);
+            case "lines":
+                return lines(n, seed);
+            case "adversarial":
+                return adversarial(n, seed);
+            default:
+                throw new IllegalArgumentException("Unknown distribution " + distribution);
+        }
+    }
+
+    /**
+     * Random points in [0, 32768) x [0, 32768)
+     */
+    public static PointCloud uniform(int n, long seed) {
+        if ((long) n > (long) RANGE * RANGE) {
+            throw new IllegalArgumentException();
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        Builder builder = new Builder(n);
+        while (builder.size < n) {
+            builder.add(random.nextInt(RANGE), random.nextInt(RANGE));
+        }
+        return builder.build();
+    }
+
+    /**
+     * The first n points of a square grid, row by row
+     */
+    public static PointCloud grid(int n) {
+        int side = (int) Math.ceil(Math.sqrt(n));
+        Builder builder = new Builder(n);
+        for (int i = 0; i < n; i++) {
+            builder.add(i % side, i / side);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Points on 16 random lines, every line starts at a random point and steps in a random direction
+     */
+    public static PointCloud lines(int n, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] x = new int[LINES];
+        int[] y = new int[LINES];
+        int[] dx = new int[LINES];
+        int[] dy = new int[LINES];
+        for (int line = 0; line < LINES; line++) {
+            x[line] = random.nextInt(-RANGE, RANGE);
+            y[line] = random.nextInt(-RANGE, RANGE);
+            dx[line] = random.nextInt(1, 16);
+            dy[line] = random.nextInt(-15, 16);
+        }
+
+        Builder builder = new Builder(n);
+        for (int step = 0; builder.size < n; step++) {
+            for (int line = 0; line < LINES && builder.size < n; line++) {
+                builder.add(x[line] + step * dx[line], y[line] + step * dy[line]);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Groups of 7 points: a point o and the points o + k(b, a) and o + k(d, c) for k = 1..3,
+     * where ad - bc = 1 and a, b are about 2^28. The two slopes differ by 1 / bd, about 2^-57,
+     * so they round to the same double and only an exact comparison tells the lines apart.
+     */
+    public static PointCloud adversarial(int n, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        Builder builder = new Builder(n);
+        while (builder.size < n) {
+            int a = random.nextInt(1 << 28, 1 << 29);
+            int b = random.nextInt(1 << 28, 1 << 29);
+            if (BigInteger.valueOf(a).gcd(BigInteger.valueOf(b)).intValue() != 1) {
+                continue;
+            }
+            // d is the inverse of a modulo b, then c = (ad - 1) / b is an integer
+            int d = BigInteger.valueOf(a).modInverse(BigInteger.valueOf(b)).intValue();
+            int c = (int) (((long) a * d - 1) / b);
+
+            int ox = Integer.MIN_VALUE + random.nextInt(1 << 20);
+            int oy = Integer.MIN_VALUE + random.nextInt(1 << 20);
+            builder.add(ox, oy);
+            for (int k = 1; k <= 3; k++) {
+                builder.add(ox + k * b, oy + k * a);
+                builder.add(ox + k * d, oy + k * c);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Collects up to n distinct points
+     */
+    private static final class Builder {
+
+        private final int[] xs;
+        private final int[] ys;
+        private final Set<Long> seen;
+        private int size = 0;
+
+        Builder(int n) {
+            this.xs = new int[n];
+            this.ys = new int[n];
+            this.seen = new HashSet<>(2 * n);
+        }
+
+        void add(int x, int y) {
+            if (this.size < this.xs.length && this.seen.add(((long) x << 32) | (y & 0xFFFFFFFFL))) {
+                this.xs[this.size] = x;
+                this.ys[this.size] = y;
+                this.size++;
+            }
+        }
+
+        PointCloud build() {
+            return new PointCloud(this.xs, this.ys);
+        }
+    }
+
+    /**
+     * Usage: PointCloudGenerator distribution n file [seed]
+     * Writes the points to the file in the binary format
+     * @param args the arguments
+     */
+    public static void main(String[] args) {
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 42;
+        PointCloud cloud = generate(args[0], Integer.parseInt(args[1]), seed);
+        cloud.writeBinary(args[2]);
+    }
+}
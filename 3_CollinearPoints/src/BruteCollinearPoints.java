@@ -1,10 +1,15 @@
-import edu.princeton.cs.algs4.In;
 import edu.princeton.cs.algs4.StdDraw;
 import edu.princeton.cs.algs4.StdOut;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * A stupid brute force implementation to find collinear points
@@ -17,25 +22,46 @@ public class BruteCollinearPoints {
      * Finds all line segments containing 4 points
      */
     public BruteCollinearPoints(Point[] points) {
-        validatePoints(points);
+        this(points, false);
+    }
+
+    /**
+     * Finds all line segments containing 4 points.
+     * In maximal mode exactly one segment between the outermost points is found for every line
+     * of 4 or more points, in O(n^3), which makes the result comparable with the fast finders.
+     * Otherwise a segment is found for every 4 collinear points, so a longer line gives
+     * several overlapping segments.
+     * @param points the points
+     * @param maximal find only maximal segments
+     */
+    public BruteCollinearPoints(Point[] points, boolean maximal) {
+        PointChecks.validatePoints(points);
 
         Point[] sortedPoints = points.clone();
         Arrays.sort(sortedPoints);
+        PointChecks.checkDuplicates(sortedPoints);
+
+        if (maximal) {
+            findMaximalSegments(sortedPoints);
+        }
+        else {
+            findSegments(sortedPoints);
+        }
+    }
 
+    private void findSegments(Point[] sortedPoints) {
         for (int p = 0; p < sortedPoints.length - 3; p++) {
             Point point1 = sortedPoints[p];
+            Comparator<Point> slopeOrder = point1.slopeOrder();
             for (int q = p + 1; q < sortedPoints.length - 2; q++) {
                 Point point2 = sortedPoints[q];
-                double slope2 = point1.slopeTo(point2);
                 for (int r = q + 1; r < sortedPoints.length - 1; r++) {
                     Point point3 = sortedPoints[r];
-                    double slope3 = point1.slopeTo(point3);
-                    if (Double.compare(slope2, slope3) == 0) {
+                    if (slopeOrder.compare(point2, point3) == 0) {
                         for (int s = r + 1; s < sortedPoints.length; s++) {
                             Point point4 = sortedPoints[s];
-                            double slope4 = point1.slopeTo(point4);
 
-                            if (Double.compare(slope3, slope4) == 0) {
+                            if (slopeOrder.compare(point3, point4) == 0) {
                                 LineSegment lineSegment = new LineSegment(point1, point4);
                                 lineSegments.add(lineSegment);
                             }
@@ -47,30 +73,38 @@ public class BruteCollinearPoints {
     }
 
     /**
-     * Validate the points.
-     * Throw a {@link IllegalAccessException} if the points array is null,
-     * if any point in the array is null, or if the argument to the constructor
-     * contains a repeated point.
-     * @param points the points to validate
+     * Every line is taken from the pair of its two smallest points.
+     * For each pair all other points are swept once, the pair is dropped if a point
+     * on its line is smaller than the second point of the pair.
      */
-    private void validatePoints(Point[] points) {
-        // Check the points are not null
-        if (points == null) {
-            throw new IllegalArgumentException();
-        }
+    private void findMaximalSegments(Point[] sortedPoints) {
+        for (int p = 0; p < sortedPoints.length - 3; p++) {
+            Point point1 = sortedPoints[p];
+            Comparator<Point> slopeOrder = point1.slopeOrder();
+            for (int q = p + 1; q < sortedPoints.length - 2; q++) {
+                Point point2 = sortedPoints[q];
 
-        // Check that there are no nulls in the array
-        for (int i = 0; i < points.length; i++) {
-            if (points[i] == null) {
-                throw new IllegalArgumentException();
-            }
-        }
+                boolean smallestPair = true;
+                for (int r = 0; r < q && smallestPair; r++) {
+                    if (r != p && slopeOrder.compare(point2, sortedPoints[r]) == 0) {
+                        smallestPair = false;
+                    }
+                }
+                if (!smallestPair) {
+                    continue;
+                }
 
-        // Check duplicates
-        for (int i = 0; i < points.length - 1; i++) {
-            for (int j = i + 1; j < points.length; j++) {
-                if (points[i].compareTo(points[j]) == 0) {
-                    throw new IllegalArgumentException();
+                // The points are sorted, so the last collinear point is the endpoint
+                int count = 2;
+                Point last = point2;
+                for (int r = q + 1; r < sortedPoints.length; r++) {
+                    if (slopeOrder.compare(point2, sortedPoints[r]) == 0) {
+                        count++;
+                        last = sortedPoints[r];
+                    }
+                }
+                if (count >= 4) {
+                    lineSegments.add(new LineSegment(point1, last));
                 }
             }
         }
@@ -92,17 +126,79 @@ public class BruteCollinearPoints {
         return this.lineSegments.toArray(new LineSegment[this.lineSegments.size()]);
     }
 
-    public static void main(String[] args) {
+    /**
+     * Checks that the fast finders give the same segments as the maximal brute force search
+     * on small random, grid and collinear-heavy point sets
+     */
+    private static void checkFastFinders() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        for (int seed = 0; seed < 20; seed++) {
+            Random random = new Random(seed);
+            List<Point[]> clouds = new ArrayList<>();
+
+            // Random points in a small square, which has many short lines
+            Set<Point> small = new TreeSet<>();
+            while (small.size() < 60) {
+                small.add(new Point(random.nextInt(16), random.nextInt(16)));
+            }
+            clouds.add(small.toArray(new Point[0]));
+
+            // A grid
+            int side = 4 + seed % 5;
+            Point[] grid = new Point[side * side];
+            for (int i = 0; i < grid.length; i++) {
+                grid[i] = new Point(i % side, i / side);
+            }
+            clouds.add(grid);
+
+            // A few long lines through random points, scaled near the coordinate limits
+            Set<Point> lines = new TreeSet<>();
+            for (int line = 0; line < 4; line++) {
+                int x = random.nextInt(8);
+                int y = random.nextInt(8);
+                int dx = random.nextInt(5) - 2;
+                int dy = random.nextInt(3);
+                for (int k = 0; k < 8 && (dx != 0 || dy != 0); k++) {
+                    lines.add(new Point(Integer.MIN_VALUE + 100000000 * (x + k * dx + 16),
+                            Integer.MAX_VALUE - 100000000 * (y + k * dy)));
+                }
+            }
+            while (lines.size() < 50) {
+                lines.add(new Point(Integer.MIN_VALUE + 100000000 * random.nextInt(40),
+                        Integer.MAX_VALUE - 100000000 * random.nextInt(20)));
+            }
+            clouds.add(lines.toArray(new Point[0]));
+
+            for (Point[] points : clouds) {
+                Set<String> expected = segmentSet(new BruteCollinearPoints(points, true).segments());
+                assert expected.equals(segmentSet(new FastCollinearPoints(points).segments()));
+                assert expected.equals(segmentSet(new FastCollinearPoints(points, pool).segments()));
+                assert expected.equals(segmentSet(new HashCollinearPoints(points).segments()));
+                assert expected.equals(segmentSet(new PackedCollinearPoints(points).segments()));
+
+                IncrementalCollinearPoints incremental = new IncrementalCollinearPoints();
+                for (Point point : points) {
+                    incremental.add(point);
+                }
+                assert expected.equals(segmentSet(incremental.segments()));
+            }
+        }
+        pool.shutdown();
+    }
 
-        // read the n points from a file
-        In in = new In(args[0]);
-        int n = in.readInt();
-        Point[] points = new Point[n];
-        for (int i = 0; i < n; i++) {
-            int x = in.readInt();
-            int y = in.readInt();
-            points[i] = new Point(x, y);
+    private static Set<String> segmentSet(LineSegment[] segments) {
+        Set<String> set = new HashSet<>();
+        for (LineSegment segment : segments) {
+            set.add(segment.toString());
         }
+        return set;
+    }
+
+    public static void main(String[] args) {
+        checkFastFinders();
+
+        // read the points from a text or binary file
+        Point[] points = PointCloud.read(args[0]).toPoints();
 
         // draw the points
         StdDraw.enableDoubleBuffering();
@@ -1,110 +1,310 @@
-import edu.princeton.cs.algs4.In;
 import edu.princeton.cs.algs4.StdDraw;
-import edu.princeton.cs.algs4.StdOut;
 
-import java.util.ArrayList;
+import java.util.AbstractList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiConsumer;
 
 public class FastCollinearPoints {
 
-    private final List<LineSegment> lineSegments = new ArrayList<>();
+    // Number of anchor points searched by one parallel task per worker and split level
+    private static final int TASKS_PER_WORKER = 8;
+
+    private static final int DEFAULT_MIN_POINTS = 4;
+
+    // All points in natural order, the segment endpoints are indexes into it
+    private final Point[] points;
+
+    // Endpoint indexes of the found segments, segment i is (segmentEnds[2i], segmentEnds[2i + 1])
+    private final int[] segmentEnds;
+
+    private final int segmentCount;
 
     /**
      * Finds all line segments containing 4 points
      */
     public FastCollinearPoints(Point[] points) {
-        validatePoints(points);
+        this(points, DEFAULT_MIN_POINTS);
+    }
+
+    /**
+     * Finds all line segments containing at least minPoints points
+     * @param points the points
+     * @param minPoints the minimum number of points on a segment, at least 2
+     */
+    public FastCollinearPoints(Point[] points, int minPoints) {
+        PointChecks.validatePoints(points);
+        validateMinPoints(minPoints);
 
         Point[] pointsCopy = points.clone();
-        Point[] sortedPoints = points.clone();
         Arrays.sort(pointsCopy);
-        int pointsCount = pointsCopy.length;
-
-        for (Point point : pointsCopy) {
-            // Order the points by their slope to P
-            Arrays.sort(sortedPoints, point.slopeOrder());
-            // Start from the second point because the first is the point itself
-            for (int start = 1, end = 2; start < pointsCount - 2;) {
-                double slope = point.slopeTo(sortedPoints[start]);
-
-                // While the next slope is equal to the initial do move right
-                while (end < pointsCount && Double.compare(slope, point.slopeTo(sortedPoints[end])) == 0) {
-                    end++;
-                }
+        PointChecks.checkDuplicates(pointsCopy);
 
-                // If found more than 3 points with the same slope then make a LineSegment
-                if ((end - start) >= 3) {
-                    Arrays.sort(sortedPoints, start, end);
-                    if (sortedPoints[start].compareTo(point) > 0) {
-                        this.lineSegments.add(new LineSegment(point, sortedPoints[end - 1]));
-                    }
-                }
+        SegmentBuffer segments = new SegmentBuffer();
+        findSegments(new SlopeSearch(xsOf(pointsCopy), ysOf(pointsCopy), minPoints), 0, pointsCopy.length, segments);
 
-                start = end;
-                end++;
-            }
-        }
+        this.points = pointsCopy;
+        this.segmentEnds = segments.ends();
+        this.segmentCount = segments.count();
+    }
+
+    /**
+     * Finds all line segments containing 4 points, splitting the anchor points across the pool.
+     * Every worker sorts with one set of scratch arrays for all the tasks it runs, every task
+     * collects its own segments and the buffers are concatenated when the tasks are joined.
+     * @param points the points
+     * @param pool the pool running the search
+     */
+    public FastCollinearPoints(Point[] points, ForkJoinPool pool) {
+        this(points, DEFAULT_MIN_POINTS, pool);
     }
 
     /**
-     * Validate the points.
-     * Throw a {@link IllegalAccessException} if the points array is null,
-     * if any point in the array is null, or if the argument to the constructor
-     * contains a repeated point.
-     * @param points the points to validate
+     * Finds all line segments containing at least minPoints points, splitting the anchor points
+     * across the pool
+     * @param points the points
+     * @param minPoints the minimum number of points on a segment, at least 2
+     * @param pool the pool running the search
      */
-    private void validatePoints(Point[] points) {
-        // Check the points are not null
-        if (points == null) {
+    public FastCollinearPoints(Point[] points, int minPoints, ForkJoinPool pool) {
+        PointChecks.validatePoints(points);
+        validateMinPoints(minPoints);
+        if (pool == null) {
             throw new IllegalArgumentException();
         }
 
-        // Check that there are no nulls in the array
+        Point[] pointsCopy = points.clone();
+        Arrays.sort(pointsCopy);
+        PointChecks.checkDuplicates(pointsCopy);
+
+        int threshold = Math.max(1, pointsCopy.length / (pool.getParallelism() * TASKS_PER_WORKER));
+        WorkerSearches searches = new WorkerSearches(xsOf(pointsCopy), ysOf(pointsCopy), minPoints, pool);
+        SegmentBuffer segments = pool.invoke(new SearchTask(searches, 0, pointsCopy.length, threshold));
+
+        this.points = pointsCopy;
+        this.segmentEnds = segments.ends();
+        this.segmentCount = segments.count();
+    }
+
+    /**
+     * Finds the line segments whose smallest point is one of the anchor points in [from, to)
+     * @param search the search over all points, with its scratch arrays
+     * @param from the first anchor index
+     * @param to the index after the last anchor
+     * @param segments the buffer receiving the segment endpoint indexes
+     */
+    private static void findSegments(SlopeSearch search, int from, int to, SegmentBuffer segments) {
+        for (int p = from; p < to; p++) {
+            search.findSegments(p, segments);
+        }
+    }
+
+    private static int[] xsOf(Point[] points) {
+        int[] xs = new int[points.length];
         for (int i = 0; i < points.length; i++) {
-            if (points[i] == null) {
-                throw new IllegalArgumentException();
-            }
+            xs[i] = points[i].x();
         }
+        return xs;
+    }
+
+    private static int[] ysOf(Point[] points) {
+        int[] ys = new int[points.length];
+        for (int i = 0; i < points.length; i++) {
+            ys[i] = points[i].y();
+        }
+        return ys;
+    }
 
-        // Check duplicates
-        for (int i = 0; i < points.length - 1; i++) {
-            for (int j = i + 1; j < points.length; j++) {
-                if (points[i].compareTo(points[j]) == 0) {
-                    throw new IllegalArgumentException();
+    /**
+     * The searches of the pool workers, indexed by the pool index of the worker,
+     * so the scratch arrays are allocated once per worker instead of once per task.
+     * A thread outside the pool helping with the tasks gets a search of its own.
+     */
+    private static final class WorkerSearches {
+
+        private final int[] xs;
+        private final int[] ys;
+        private final int minPoints;
+        private final ForkJoinPool pool;
+        private final SlopeSearch[] searches;
+
+        WorkerSearches(int[] xs, int[] ys, int minPoints, ForkJoinPool pool) {
+            this.xs = xs;
+            this.ys = ys;
+            this.minPoints = minPoints;
+            this.pool = pool;
+            // Pool indexes stay below twice the parallelism unless the pool adds compensating workers
+            this.searches = new SlopeSearch[2 * pool.getParallelism()];
+        }
+
+        /**
+         * Returns the search of the current thread
+         * @return the search
+         */
+        SlopeSearch get() {
+            Thread thread = Thread.currentThread();
+            if (thread instanceof ForkJoinWorkerThread) {
+                ForkJoinWorkerThread worker = (ForkJoinWorkerThread) thread;
+                int index = worker.getPoolIndex();
+                if (worker.getPool() == this.pool && index < this.searches.length) {
+                    if (this.searches[index] == null) {
+                        this.searches[index] = new SlopeSearch(this.xs, this.ys, this.minPoints);
+                    }
+                    return this.searches[index];
                 }
             }
+            return new SlopeSearch(this.xs, this.ys, this.minPoints);
+        }
+    }
+
+    /**
+     * Searches a range of anchor points, splitting it in halves until it is small enough
+     */
+    private static class SearchTask extends RecursiveTask<SegmentBuffer> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient WorkerSearches searches;
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        SearchTask(WorkerSearches searches, int from, int to, int threshold) {
+            this.searches = searches;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected SegmentBuffer compute() {
+            if (this.to - this.from <= this.threshold) {
+                SegmentBuffer segments = new SegmentBuffer();
+                findSegments(this.searches.get(), this.from, this.to, segments);
+                return segments;
+            }
+
+            int middle = (this.from + this.to) >>> 1;
+            SearchTask left = new SearchTask(this.searches, this.from, middle, this.threshold);
+            SearchTask right = new SearchTask(this.searches, middle, this.to, this.threshold);
+            left.fork();
+            SegmentBuffer segments = right.compute();
+            SegmentBuffer leftSegments = left.join();
+            leftSegments.addAll(segments);
+            return leftSegments;
+        }
+    }
+
+    private static void validateMinPoints(int minPoints) {
+        if (minPoints < 2) {
+            throw new IllegalArgumentException("A segment must contain at least 2 points!");
         }
     }
 
     /**
-     * The number of line segments containing 4 points
+     * The number of found line segments
      * @return the number of line segments
      */
     public int numberOfSegments() {
-        return this.lineSegments.size();
+        return this.segmentCount;
     }
 
     /**
-     * Returns all found line segments containing 4 points
+     * Returns all found line segments
      * @return line segments
      */
     public LineSegment[] segments() {
-        return this.lineSegments.toArray(new LineSegment[this.lineSegments.size()]);
+        LineSegment[] segments = new LineSegment[this.segmentCount];
+        for (int i = 0; i < this.segmentCount; i++) {
+            segments[i] = segment(i);
+        }
+        return segments;
     }
 
-    public static void main(String[] args) {
+    /**
+     * Returns a read-only view of the found line segments.
+     * Nothing is copied, every segment is created when it is read.
+     * @return the segments view
+     */
+    public List<LineSegment> segmentView() {
+        return new SegmentView();
+    }
+
+    /**
+     * Passes the endpoints of every found segment to the action, without creating segments
+     * @param action the action taking the smaller and the larger endpoint
+     */
+    public void forEachSegment(BiConsumer<Point, Point> action) {
+        if (action == null) {
+            throw new IllegalArgumentException();
+        }
+        for (int i = 0; i < this.segmentCount; i++) {
+            action.accept(this.points[this.segmentEnds[2 * i]], this.points[this.segmentEnds[2 * i + 1]]);
+        }
+    }
+
+    /**
+     * Returns the index of the smaller endpoint of the i-th segment, see {@link #point(int)}
+     * @param i the segment index
+     * @return the point index
+     */
+    public int segmentFrom(int i) {
+        checkSegmentIndex(i);
+        return this.segmentEnds[2 * i];
+    }
+
+    /**
+     * Returns the index of the larger endpoint of the i-th segment, see {@link #point(int)}
+     * @param i the segment index
+     * @return the point index
+     */
+    public int segmentTo(int i) {
+        checkSegmentIndex(i);
+        return this.segmentEnds[2 * i + 1];
+    }
+
+    /**
+     * Returns the point with the index among all points in natural order
+     * @param index the point index
+     * @return the point
+     */
+    public Point point(int index) {
+        return this.points[index];
+    }
 
-        // read the n points from a file
-        In in = new In(args[0]);
-        int n = in.readInt();
-        Point[] points = new Point[n];
-        for (int i = 0; i < n; i++) {
-            int x = in.readInt();
-            int y = in.readInt();
-            points[i] = new Point(x, y);
+    private LineSegment segment(int i) {
+        return new LineSegment(this.points[this.segmentEnds[2 * i]], this.points[this.segmentEnds[2 * i + 1]]);
+    }
+
+    private void checkSegmentIndex(int i) {
+        if (i < 0 || i >= this.segmentCount) {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
+    private class SegmentView extends AbstractList<LineSegment> implements RandomAccess {
+
+        @Override
+        public LineSegment get(int index) {
+            checkSegmentIndex(index);
+            return segment(index);
         }
 
+        @Override
+        public int size() {
+            return FastCollinearPoints.this.segmentCount;
+        }
+    }
+
+    public static void main(String[] args) {
+
+        // read the points from a text or binary file
+        Point[] points = PointCloud.read(args[0]).toPoints();
+
         // draw the points
         StdDraw.enableDoubleBuffering();
         StdDraw.setXscale(0, 32768);
@@ -116,8 +316,10 @@ public class FastCollinearPoints {
 
         // print and draw the line segments
         FastCollinearPoints collinear = new FastCollinearPoints(points);
-        for (LineSegment segment : collinear.segments()) {
-            StdOut.println(segment);
+        SegmentWriter writer = new SegmentWriter(System.out);
+        writer.write(collinear);
+        writer.flush();
+        for (LineSegment segment : collinear.segmentView()) {
             segment.draw();
         }
         StdDraw.show();
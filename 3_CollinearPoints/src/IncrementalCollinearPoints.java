@@ -0,0 +1,245 @@
+import edu.princeton.cs.algs4.In;
+import edu.princeton.cs.algs4.StdOut;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Finds collinear points incrementally while the points arrive one at a time.
+ * Every line through two of the points is kept in a hash table under an exact key,
+ * so adding a point only looks up the lines from the new point to the existing ones,
+ * which is O(n) expected time per insertion. The table holds a line for every pair of points,
+ * so memory grows as O(n^2): about 545 MB at 3000 points and 6 GB at 10^4. That suits a few
+ * thousand points arriving over time, not large streams, for those see {@link RandomizedLineFinder}.
+ * A listener is told when a line reaches 4 points and when its segment is extended.
+ */
+public class IncrementalCollinearPoints {
+
+    /**
+     * Receives the segment events
+     */
+    public interface SegmentListener {
+
+        /**
+         * Called when a line reaches 4 points
+         * @param segment the new segment
+         */
+        void segmentFound(LineSegment segment);
+
+        /**
+         * Called when a point is added beyond an end of a segment
+         * @param previous the segment before the point was added
+         * @param extended the segment including the new point
+         */
+        void segmentExtended(LineSegment previous, LineSegment extended);
+    }
+
+    private final List<Point> points = new ArrayList<>();
+
+    private final Set<Long> coordinates = new HashSet<>();
+
+    private final Map<LineKey, Line> lines = new HashMap<>();
+
+    // Lines with 4 or more points in the order they were found
+    private final List<Line> segmentLines = new ArrayList<>();
+
+    private final SegmentListener listener;
+
+    // Number of the current insertion, so a line is updated once per insertion
+    private int insertion = 0;
+
+    /**
+     * Construct an empty finder without a listener
+     */
+    public IncrementalCollinearPoints() {
+        this(null);
+    }
+
+    /**
+     * Construct an empty finder reporting segment events to the listener
+     * @param listener the listener or null
+     */
+    public IncrementalCollinearPoints(SegmentListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Add the point and update the segments through it
+     * @param point the point
+     */
+    public void add(Point point) {
+        if (point == null) {
+            throw new IllegalArgumentException();
+        }
+        if (!this.coordinates.add(((long) point.x() << 32) | (point.y() & 0xFFFFFFFFL))) {
+            throw new IllegalArgumentException();
+        }
+
+        this.insertion++;
+        for (Point other : this.points) {
+            LineKey key = new LineKey(point, other);
+            Line line = this.lines.get(key);
+            if (line == null) {
+                line = new Line(point, other);
+                line.insertion = this.insertion;
+                this.lines.put(key, line);
+            }
+            else if (line.insertion != this.insertion) {
+                line.insertion = this.insertion;
+                addToLine(line, point);
+            }
+        }
+        this.points.add(point);
+    }
+
+    private void addToLine(Line line, Point point) {
+        LineSegment previous = line.count >= 4 ? line.segment() : null;
+        boolean extended = false;
+        if (point.compareTo(line.min) < 0) {
+            line.min = point;
+            extended = true;
+        }
+        else if (point.compareTo(line.max) > 0) {
+            line.max = point;
+            extended = true;
+        }
+        line.count++;
+
+        if (line.count == 4) {
+            this.segmentLines.add(line);
+            if (this.listener != null) {
+                this.listener.segmentFound(line.segment());
+            }
+        }
+        else if (previous != null && extended && this.listener != null) {
+            this.listener.segmentExtended(previous, line.segment());
+        }
+    }
+
+    /**
+     * The number of points added
+     * @return the number of points
+     */
+    public int numberOfPoints() {
+        return this.points.size();
+    }
+
+    /**
+     * The number of line segments containing 4 or more points
+     * @return the number of line segments
+     */
+    public int numberOfSegments() {
+        return this.segmentLines.size();
+    }
+
+    /**
+     * Returns all line segments containing 4 or more of the points added so far
+     * @return line segments
+     */
+    public LineSegment[] segments() {
+        LineSegment[] segments = new LineSegment[this.segmentLines.size()];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = this.segmentLines.get(i).segment();
+        }
+        return segments;
+    }
+
+    private static final class Line {
+
+        private Point min;
+        private Point max;
+        private int count;
+        private int insertion;
+
+        Line(Point p, Point q) {
+            if (p.compareTo(q) < 0) {
+                this.min = p;
+                this.max = q;
+            }
+            else {
+                this.min = q;
+                this.max = p;
+            }
+            this.count = 2;
+        }
+
+        LineSegment segment() {
+            return new LineSegment(this.min, this.max);
+        }
+    }
+
+    /**
+     * Checks that adding the points one by one gives the same segments as the maximal
+     * brute force search on all of them, and that every segment is reported found once
+     */
+    private static void checkAgainstBruteForce() {
+        for (int seed = 0; seed < 20; seed++) {
+            Random random = new Random(seed);
+            Set<Point> unique = new TreeSet<>();
+            while (unique.size() < 60) {
+                unique.add(new Point(random.nextInt(16), random.nextInt(16)));
+            }
+            List<Point> points = new ArrayList<>(unique);
+            Collections.shuffle(points, random);
+
+            int[] found = new int[1];
+            IncrementalCollinearPoints collinear = new IncrementalCollinearPoints(new SegmentListener() {
+                @Override
+                public void segmentFound(LineSegment segment) {
+                    found[0]++;
+                }
+
+                @Override
+                public void segmentExtended(LineSegment previous, LineSegment extended) {
+                }
+            });
+            for (Point point : points) {
+                collinear.add(point);
+            }
+
+            Set<String> expected = new HashSet<>();
+            for (LineSegment segment : new BruteCollinearPoints(points.toArray(new Point[0]), true).segments()) {
+                expected.add(segment.toString());
+            }
+            Set<String> actual = new HashSet<>();
+            for (LineSegment segment : collinear.segments()) {
+                actual.add(segment.toString());
+            }
+            assert actual.equals(expected);
+            assert found[0] == expected.size();
+        }
+    }
+
+    public static void main(String[] args) {
+        checkAgainstBruteForce();
+
+        IncrementalCollinearPoints collinear = new IncrementalCollinearPoints(new SegmentListener() {
+            @Override
+            public void segmentFound(LineSegment segment) {
+                StdOut.println("found    " + segment);
+            }
+
+            @Override
+            public void segmentExtended(LineSegment previous, LineSegment extended) {
+                StdOut.println("extended " + previous + " to " + extended);
+            }
+        });
+
+        // read the n points from a file and add them one by one
+        In in = new In(args[0]);
+        int n = in.readInt();
+        for (int i = 0; i < n; i++) {
+            int x = in.readInt();
+            int y = in.readInt();
+            collinear.add(new Point(x, y));
+        }
+        StdOut.println(collinear.numberOfSegments() + " segments");
+    }
+}
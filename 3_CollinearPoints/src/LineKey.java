@@ -0,0 +1,77 @@
+/**
+ * Exact key of the line through two distinct points: the reduced direction (dx, dy)
+ * with dx > 0 or dx = 0 and dy > 0, and the 128-bit offset c = dy * x - dx * y,
+ * which is the same for every point on the line.
+ */
+final class LineKey {
+
+    private final long dx;
+    private final long dy;
+    private final long offsetHigh;
+    private final long offsetLow;
+
+    LineKey(Point p, Point q) {
+        long dx = (long) q.x() - p.x();
+        long dy = (long) q.y() - p.y();
+        if (dx < 0 || (dx == 0 && dy < 0)) {
+            dx = -dx;
+            dy = -dy;
+        }
+        long g = gcd(Math.abs(dx), Math.abs(dy));
+        this.dx = dx / g;
+        this.dy = dy / g;
+
+        this.offsetLow = offsetLow(p);
+        this.offsetHigh = offsetHigh(p);
+    }
+
+    /**
+     * Checks whether the point lies on the line
+     * @param point the point
+     * @return true if the point is on the line
+     */
+    boolean contains(Point point) {
+        return offsetLow(point) == this.offsetLow && offsetHigh(point) == this.offsetHigh;
+    }
+
+    private long offsetLow(Point point) {
+        return this.dy * point.x() - this.dx * point.y();
+    }
+
+    private long offsetHigh(Point point) {
+        long low1 = this.dy * point.x();
+        long low2 = this.dx * point.y();
+        long borrow = Long.compareUnsigned(low1, low2) < 0 ? 1 : 0;
+        return Math.multiplyHigh(this.dy, point.x()) - Math.multiplyHigh(this.dx, point.y()) - borrow;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof LineKey)) {
+            return false;
+        }
+        LineKey that = (LineKey) o;
+        return this.dx == that.dx && this.dy == that.dy
+                && this.offsetHigh == that.offsetHigh && this.offsetLow == that.offsetLow;
+    }
+
+    @Override
+    public int hashCode() {
+        long h = this.dx * 0x9E3779B97F4A7C15L + this.dy;
+        h = h * 0x9E3779B97F4A7C15L + this.offsetHigh;
+        h = h * 0x9E3779B97F4A7C15L + this.offsetLow;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+}
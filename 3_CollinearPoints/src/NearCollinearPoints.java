@@ -0,0 +1,441 @@
+import edu.princeton.cs.algs4.In;
+import edu.princeton.cs.algs4.StdDraw;
+import edu.princeton.cs.algs4.StdOut;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Finds lines of at least a given number of nearly collinear points.
+ * For every anchor the other points are sorted by the angle of the line through them and the anchor,
+ * in [0, pi), and a window slides over the sorted angles. A window holds the points whose angles
+ * differ by at most epsilon from the angle of its first point, wrapping around at pi.
+ * Every maximal window with enough points, whose points are all larger than the anchor, gives a line
+ * from the anchor to its largest point. With noise a later anchor on the same line, or an overlapping
+ * window of the same anchor, opens a window of its own, and so does a point just off the line, which
+ * sees the far points of the line within the tolerance. When at least half of such a window, or half
+ * of a found line, lies on the found line, the window extends that line instead, so every line gives one segment. With a tolerance of 0 the slopes are compared exactly, so only exactly collinear
+ * points are found. That takes O(n^2 log n) time.
+ */
+public class NearCollinearPoints {
+
+    private final List<LineSegment> lineSegments = new ArrayList<>();
+
+    private final Point[] sortedPoints;
+
+    private final int minPoints;
+
+    private final double epsilon;
+
+    // Scratch arrays reused for every anchor
+    private final double[] angles;
+    private final int[] indexes;
+    private final double[] angleBuffer;
+    private final int[] indexBuffer;
+    private final int[] minQueue;
+    private final int[] maxQueue;
+
+    // The lines found so far, pointLines[q] holds the first pointLineCounts[q] lines through point q
+    private final List<Line> lines = new ArrayList<>();
+    private final int[][] pointLines;
+    private final int[] pointLineCounts;
+
+    // Scratch votes of the lines through a window
+    private int[] lineVotes = new int[0];
+
+    /**
+     * Finds all line segments of at least minPoints points whose angles to the anchor
+     * differ by at most epsilon
+     * @param points the points
+     * @param minPoints the minimum number of points on a segment, at least 2
+     * @param epsilon the angular tolerance in radians, in [0, pi/2)
+     */
+    public NearCollinearPoints(Point[] points, int minPoints, double epsilon) {
+        PointChecks.validatePoints(points);
+        if (minPoints < 2) {
+            throw new IllegalArgumentException("A segment must contain at least 2 points!");
+        }
+        if (!(epsilon >= 0 && epsilon < Math.PI / 2)) {
+            throw new IllegalArgumentException("Tolerance must be in [0, pi/2)!");
+        }
+
+        this.sortedPoints = points.clone();
+        Arrays.sort(this.sortedPoints);
+        PointChecks.checkDuplicates(this.sortedPoints);
+        this.minPoints = minPoints;
+        this.epsilon = epsilon;
+
+        int others = Math.max(0, this.sortedPoints.length - 1);
+        this.angles = new double[others];
+        this.indexes = new int[others];
+        this.angleBuffer = new double[others];
+        this.indexBuffer = new int[others];
+        this.minQueue = new int[2 * others];
+        this.maxQueue = new int[2 * others];
+        this.pointLines = new int[this.sortedPoints.length][];
+        this.pointLineCounts = new int[this.sortedPoints.length];
+
+        for (int p = 0; p < this.sortedPoints.length; p++) {
+            findSegments(p);
+        }
+        for (Line line : this.lines) {
+            this.lineSegments.add(new LineSegment(this.sortedPoints[line.start], this.sortedPoints[line.end]));
+        }
+    }
+
+    /**
+     * Finds the segments whose smallest point is the anchor
+     * @param anchor the anchor index
+     */
+    private void findSegments(int anchor) {
+        Point point = this.sortedPoints[anchor];
+        int m = 0;
+        for (int q = 0; q < this.sortedPoints.length; q++) {
+            if (q != anchor) {
+                Point other = this.sortedPoints[q];
+                double dx = (double) other.x() - point.x();
+                double dy = (double) other.y() - point.y();
+                // Opposite directions lie on the same line, so turn the direction into the right half-plane
+                // before computing the angle
+                if (dx < 0 || (dx == 0 && dy < 0)) {
+                    dx = -dx;
+                    dy = -dy;
+                }
+                if (this.epsilon == 0) {
+                    // Proportional directions may round to different angles, the reduced direction is the same
+                    double divisor = gcd((long) dx, (long) dy);
+                    dx /= divisor;
+                    dy /= divisor;
+                }
+                double angle = Math.atan2(dy, dx);
+                if (angle < 0) {
+                    angle += Math.PI;
+                }
+                this.angles[m] = angle;
+                this.indexes[m] = q;
+                m++;
+            }
+        }
+        if (m < this.minPoints - 1) {
+            return;
+        }
+        sortByAngle(point, m);
+
+        // Positions t in [0, 2m) walk around the circle twice, so a window can wrap around pi.
+        // The queues keep the positions holding the smallest and the largest point index of the window.
+        int minHead = 0;
+        int minTail = 0;
+        int maxHead = 0;
+        int maxTail = 0;
+        int reach = -1;
+        int previousReach = -1;
+        int firstReach = -1;
+        int firstMin = -1;
+        int firstMax = -1;
+
+        for (int i = 0; i < m; i++) {
+            while (reach + 1 < i + m && (reach < i || inWindow(point, i, reach + 1, m))) {
+                reach++;
+                int index = this.indexes[reach % m];
+                while (minTail > minHead && this.indexes[this.minQueue[minTail - 1] % m] >= index) {
+                    minTail--;
+                }
+                this.minQueue[minTail++] = reach;
+                while (maxTail > maxHead && this.indexes[this.maxQueue[maxTail - 1] % m] <= index) {
+                    maxTail--;
+                }
+                this.maxQueue[maxTail++] = reach;
+            }
+            while (this.minQueue[minHead] < i) {
+                minHead++;
+            }
+            while (this.maxQueue[maxHead] < i) {
+                maxHead++;
+            }
+
+            int smallest = this.indexes[this.minQueue[minHead] % m];
+            int largest = this.indexes[this.maxQueue[maxHead] % m];
+            if (i == 0) {
+                // Whether the first window is maximal is known only after the last window
+                firstReach = reach;
+                firstMin = smallest;
+                firstMax = largest;
+            }
+            else if (reach > previousReach) {
+                addLine(anchor, i, reach, m, smallest, largest);
+            }
+            previousReach = reach;
+        }
+
+        if (firstReach > previousReach - m) {
+            addLine(anchor, 0, firstReach, m, firstMin, firstMax);
+        }
+    }
+
+    /**
+     * Returns true if the point at position next belongs to the window starting at position first
+     */
+    private boolean inWindow(Point anchor, int first, int next, int m) {
+        if (angleAt(next, m) - angleAt(first, m) > this.epsilon) {
+            return false;
+        }
+        // Distinct slopes may round to the same angle
+        return this.epsilon > 0 || anchor.compareSlopes(this.sortedPoints[this.indexes[first % m]],
+                this.sortedPoints[this.indexes[next % m]]) == 0;
+    }
+
+    /**
+     * Adds the window at positions from to to as a line, or extends the found line it continues
+     */
+    private void addLine(int anchor, int from, int to, int m, int smallest, int largest) {
+        if (to - from + 1 < this.minPoints - 1 || smallest < anchor) {
+            return;
+        }
+
+        int line = continuedLine(from, to, m);
+        if (line < 0) {
+            line = this.lines.size();
+            this.lines.add(new Line(anchor, largest));
+        }
+        else if (largest > this.lines.get(line).end) {
+            this.lines.get(line).end = largest;
+        }
+
+        addPointLine(anchor, line);
+        for (int t = from; t <= to; t++) {
+            addPointLine(this.indexes[t % m], line);
+        }
+    }
+
+    /**
+     * Returns the found line sharing the most points with the window, if they are at least half
+     * of the window or of the line, or -1
+     */
+    private int continuedLine(int from, int to, int m) {
+        if (this.lineVotes.length < this.lines.size()) {
+            this.lineVotes = new int[2 * this.lines.size()];
+        }
+        for (int t = from; t <= to; t++) {
+            int q = this.indexes[t % m];
+            for (int k = 0; k < this.pointLineCounts[q]; k++) {
+                this.lineVotes[this.pointLines[q][k]]++;
+            }
+        }
+
+        int size = to - from + 1;
+        int best = -1;
+        for (int t = from; t <= to; t++) {
+            int q = this.indexes[t % m];
+            for (int k = 0; k < this.pointLineCounts[q]; k++) {
+                int line = this.pointLines[q][k];
+                int votes = this.lineVotes[line];
+                if (2 * votes >= Math.min(size, this.lines.get(line).points)
+                        && (best < 0 || votes > this.lineVotes[best])) {
+                    best = line;
+                }
+            }
+        }
+
+        for (int t = from; t <= to; t++) {
+            int q = this.indexes[t % m];
+            for (int k = 0; k < this.pointLineCounts[q]; k++) {
+                this.lineVotes[this.pointLines[q][k]] = 0;
+            }
+        }
+        return best;
+    }
+
+    private boolean onLine(int point, int line) {
+        for (int k = 0; k < this.pointLineCounts[point]; k++) {
+            if (this.pointLines[point][k] == line) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void addPointLine(int point, int line) {
+        if (onLine(point, line)) {
+            return;
+        }
+        int count = this.pointLineCounts[point];
+        if (this.pointLines[point] == null) {
+            this.pointLines[point] = new int[2];
+        }
+        else if (count == this.pointLines[point].length) {
+            this.pointLines[point] = Arrays.copyOf(this.pointLines[point], 2 * count);
+        }
+        this.pointLines[point][count] = line;
+        this.pointLineCounts[point] = count + 1;
+        this.lines.get(line).points++;
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long r = a % b;
+            a = b;
+            b = r;
+        }
+        return Math.abs(a);
+    }
+
+    private static final class Line {
+
+        private final int start;
+        private int end;
+        private int points;
+
+        Line(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    private double angleAt(int position, int m) {
+        return position < m ? this.angles[position] : this.angles[position - m] + Math.PI;
+    }
+
+    /**
+     * Sorts the first m angles together with their point indexes, bottom-up merge sort.
+     * Equal angles are ordered by the exact slope to the anchor, so equal slopes are adjacent.
+     */
+    private void sortByAngle(Point anchor, int m) {
+        double[] angles = this.angles;
+        int[] indexes = this.indexes;
+        double[] angleBuffer = this.angleBuffer;
+        int[] indexBuffer = this.indexBuffer;
+
+        for (int width = 1; width < m; width *= 2) {
+            for (int lo = 0; lo < m; lo += 2 * width) {
+                int middle = Math.min(lo + width, m);
+                int hi = Math.min(lo + 2 * width, m);
+                int i = lo;
+                int j = middle;
+                for (int k = lo; k < hi; k++) {
+                    if (i < middle && (j >= hi || angles[i] < angles[j] || (angles[i] == angles[j]
+                            && anchor.compareSlopes(this.sortedPoints[indexes[i]], this.sortedPoints[indexes[j]]) <= 0))) {
+                        angleBuffer[k] = angles[i];
+                        indexBuffer[k] = indexes[i++];
+                    }
+                    else {
+                        angleBuffer[k] = angles[j];
+                        indexBuffer[k] = indexes[j++];
+                    }
+                }
+            }
+            double[] angleSwap = angles;
+            angles = angleBuffer;
+            angleBuffer = angleSwap;
+            int[] indexSwap = indexes;
+            indexes = indexBuffer;
+            indexBuffer = indexSwap;
+        }
+
+        if (angles != this.angles) {
+            System.arraycopy(angles, 0, this.angles, 0, m);
+            System.arraycopy(indexes, 0, this.indexes, 0, m);
+        }
+    }
+
+    /**
+     * The number of found line segments
+     * @return the number of line segments
+     */
+    public int numberOfSegments() {
+        return this.lineSegments.size();
+    }
+
+    /**
+     * Returns all found line segments
+     * @return line segments
+     */
+    public LineSegment[] segments() {
+        return this.lineSegments.toArray(new LineSegment[this.lineSegments.size()]);
+    }
+
+    /**
+     * Checks that a planted line among random points gives exactly one segment,
+     * with and without noise
+     */
+    private static void checkOneSegmentPerLine() {
+        for (int seed = 0; seed < 10; seed++) {
+            for (int noise = 0; noise <= 3; noise += 3) {
+                Random random = new Random(seed);
+                Set<Point> points = new TreeSet<>();
+                for (int i = 0; i < 30; i++) {
+                    points.add(new Point(1000 + 1340 * i + random.nextInt(2 * noise + 1) - noise,
+                            2000 + 405 * i + random.nextInt(2 * noise + 1) - noise));
+                }
+                while (points.size() < 230) {
+                    points.add(new Point(random.nextInt(40000), random.nextInt(40000)));
+                }
+
+                Point[] array = points.toArray(new Point[0]);
+                assert new NearCollinearPoints(array, 20, 0.01).numberOfSegments() == 1;
+                assert new NearCollinearPoints(array, 10, 0.005).numberOfSegments() == 1;
+            }
+        }
+    }
+
+    /**
+     * Checks that with no tolerance two lines whose slopes round to the same double stay apart
+     */
+    private static void checkExactSlopes() {
+        // ad - bc = 1, so the slopes a / b and c / d differ by about 2^-57
+        int a = 268435459;
+        int b = 268435457;
+        int c = 134217730;
+        int d = 134217729;
+        int ox = Integer.MIN_VALUE + 5;
+        int oy = Integer.MIN_VALUE + 7;
+        Point[] points = new Point[7];
+        points[0] = new Point(ox, oy);
+        for (int k = 1; k <= 3; k++) {
+            points[2 * k - 1] = new Point(ox + k * b, oy + k * a);
+            points[2 * k] = new Point(ox + k * d, oy + k * c);
+        }
+        assert new NearCollinearPoints(points, 4, 0.0).numberOfSegments() == 2;
+    }
+
+    /**
+     * Usage: NearCollinearPoints file [min points] [epsilon]
+     * @param args the arguments
+     */
+    public static void main(String[] args) {
+        checkOneSegmentPerLine();
+        checkExactSlopes();
+
+        // read the n points from a file
+        In in = new In(args[0]);
+        int minPoints = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        double epsilon = args.length > 2 ? Double.parseDouble(args[2]) : 0.0;
+        int n = in.readInt();
+        Point[] points = new Point[n];
+        for (int i = 0; i < n; i++) {
+            int x = in.readInt();
+            int y = in.readInt();
+            points[i] = new Point(x, y);
+        }
+
+        // draw the points
+        StdDraw.enableDoubleBuffering();
+        StdDraw.setXscale(0, 32768);
+        StdDraw.setYscale(0, 32768);
+        for (Point p : points) {
+            p.draw();
+        }
+        StdDraw.show();
+
+        // print and draw the line segments
+        NearCollinearPoints collinear = new NearCollinearPoints(points, minPoints, epsilon);
+        for (LineSegment segment : collinear.segments()) {
+            StdOut.println(segment);
+            segment.draw();
+        }
+        StdDraw.show();
+    }
+}
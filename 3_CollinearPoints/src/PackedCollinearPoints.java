@@ -0,0 +1,140 @@
+import edu.princeton.cs.algs4.In;
+import edu.princeton.cs.algs4.StdDraw;
+import edu.princeton.cs.algs4.StdOut;
+
+import java.util.Arrays;
+
+/**
+ * Finds collinear points with the coordinates stored in parallel primitive arrays.
+ * The points are sorted without creating {@link Point} objects, the search around every anchor
+ * is the {@link SlopeSearch} that {@link FastCollinearPoints} runs as well, so the two only differ
+ * in how the points are given. {@link Point} and {@link LineSegment} objects are only created for the output.
+ */
+public class PackedCollinearPoints {
+
+    // Coordinates in the natural order of points, so a smaller index is a smaller point
+    private final int[] xs;
+    private final int[] ys;
+
+    // Endpoint indexes of the found segments
+    private final SegmentBuffer segments = new SegmentBuffer();
+
+    /**
+     * Finds all line segments containing 4 or more points
+     */
+    public PackedCollinearPoints(Point[] points) {
+        this(xsOf(points), ysOf(points));
+    }
+
+    /**
+     * Finds all line segments containing 4 or more points given as coordinate arrays
+     * @param xs the x-coordinates
+     * @param ys the y-coordinates, ys[i] belongs to xs[i]
+     */
+    public PackedCollinearPoints(int[] xs, int[] ys) {
+        if (xs == null || ys == null || xs.length != ys.length) {
+            throw new IllegalArgumentException();
+        }
+
+        int pointsCount = xs.length;
+        this.xs = new int[pointsCount];
+        this.ys = new int[pointsCount];
+        sortPoints(xs, ys);
+
+        SlopeSearch search = new SlopeSearch(this.xs, this.ys, 4);
+        for (int p = 0; p < pointsCount; p++) {
+            search.findSegments(p, this.segments);
+        }
+    }
+
+    /**
+     * Copies the points into the coordinate arrays in natural order.
+     * The points are packed into longs, y in the high half, so a primitive sort orders them.
+     * Throw a {@link IllegalArgumentException} if there is a repeated point.
+     */
+    private void sortPoints(int[] xs, int[] ys) {
+        long[] packed = new long[xs.length];
+        for (int i = 0; i < xs.length; i++) {
+            packed[i] = ((long) ys[i] << 32) | ((xs[i] ^ Integer.MIN_VALUE) & 0xFFFFFFFFL);
+        }
+        Arrays.sort(packed);
+
+        for (int i = 0; i < packed.length; i++) {
+            if (i > 0 && packed[i] == packed[i - 1]) {
+                throw new IllegalArgumentException();
+            }
+            this.ys[i] = (int) (packed[i] >> 32);
+            this.xs[i] = (int) packed[i] ^ Integer.MIN_VALUE;
+        }
+    }
+
+    private static int[] xsOf(Point[] points) {
+        PointChecks.validatePoints(points);
+        int[] xs = new int[points.length];
+        for (int i = 0; i < points.length; i++) {
+            xs[i] = points[i].x();
+        }
+        return xs;
+    }
+
+    private static int[] ysOf(Point[] points) {
+        int[] ys = new int[points.length];
+        for (int i = 0; i < points.length; i++) {
+            ys[i] = points[i].y();
+        }
+        return ys;
+    }
+
+    /**
+     * The number of line segments containing 4 or more points
+     * @return the number of line segments
+     */
+    public int numberOfSegments() {
+        return this.segments.count();
+    }
+
+    /**
+     * Returns all found line segments containing 4 or more points
+     * @return line segments
+     */
+    public LineSegment[] segments() {
+        int[] ends = this.segments.ends();
+        LineSegment[] segments = new LineSegment[this.segments.count()];
+        for (int i = 0; i < segments.length; i++) {
+            int from = ends[2 * i];
+            int to = ends[2 * i + 1];
+            segments[i] = new LineSegment(new Point(this.xs[from], this.ys[from]), new Point(this.xs[to], this.ys[to]));
+        }
+        return segments;
+    }
+
+    public static void main(String[] args) {
+
+        // read the n points from a file
+        In in = new In(args[0]);
+        int n = in.readInt();
+        int[] xs = new int[n];
+        int[] ys = new int[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = in.readInt();
+            ys[i] = in.readInt();
+        }
+
+        // draw the points
+        StdDraw.enableDoubleBuffering();
+        StdDraw.setXscale(0, 32768);
+        StdDraw.setYscale(0, 32768);
+        for (int i = 0; i < n; i++) {
+            StdDraw.point(xs[i], ys[i]);
+        }
+        StdDraw.show();
+
+        // print and draw the line segments
+        PackedCollinearPoints collinear = new PackedCollinearPoints(xs, ys);
+        for (LineSegment segment : collinear.segments()) {
+            StdOut.println(segment);
+            segment.draw();
+        }
+        StdDraw.show();
+    }
+}
@@ -16,6 +16,11 @@ public class Point implements Comparable<Point> {
     private final int x;     // x-coordinate of this point
     private final int y;     // y-coordinate of this point
 
+    // Kinds of slope, compared before the values of finite slopes
+    private static final int EQUAL = -1;    // the points are equal, slope is -infinity
+    private static final int FINITE = 0;    // the slope is a finite number
+    private static final int VERTICAL = 1;  // the line segment is vertical, slope is +infinity
+
     /**
      * Initializes a new point.
      *
@@ -28,6 +33,24 @@ public class Point implements Comparable<Point> {
         this.y = y;
     }
 
+    /**
+     * Returns the x-coordinate of this point.
+     *
+     * @return the <em>x</em>-coordinate
+     */
+    int x() {
+        return x;
+    }
+
+    /**
+     * Returns the y-coordinate of this point.
+     *
+     * @return the <em>y</em>-coordinate
+     */
+    int y() {
+        return y;
+    }
+
     /**
      * Draws this point to standard draw.
      */
@@ -93,11 +116,59 @@ public class Point implements Comparable<Point> {
      */
     public int compareTo(Point that) {
         if (this.y == that.y) {
-            return this.x - that.x;
+            return Integer.compare(this.x, that.x);
         }
         else {
-            return this.y - that.y;
+            return Integer.compare(this.y, that.y);
+        }
+    }
+
+    /**
+     * Compares the slopes two points make with this point exactly, without division.
+     * The order is the same as comparing the results of slopeTo(), except that
+     * distinct slopes never compare equal, for any <tt>int</tt> coordinates.
+     *
+     * @param  p1 the first point
+     * @param  p2 the second point
+     * @return a negative integer, zero, or a positive integer as the slope to p1
+     *         is less than, equal to, or greater than the slope to p2
+     */
+    int compareSlopes(Point p1, Point p2) {
+        long dx1 = (long) p1.x - this.x;
+        long dy1 = (long) p1.y - this.y;
+        long dx2 = (long) p2.x - this.x;
+        long dy2 = (long) p2.y - this.y;
+
+        int kind1 = slopeKind(dx1, dy1);
+        int kind2 = slopeKind(dx2, dy2);
+        if (kind1 != kind2 || kind1 != FINITE) {
+            return Integer.compare(kind1, kind2);
+        }
+
+        // Make the denominators positive, then dy1 / dx1 < dy2 / dx2 iff dy1 * dx2 < dy2 * dx1
+        if (dx1 < 0) {
+            dx1 = -dx1;
+            dy1 = -dy1;
+        }
+        if (dx2 < 0) {
+            dx2 = -dx2;
+            dy2 = -dy2;
         }
+
+        // The differences take 33 bits, so the products need 128-bit arithmetic
+        long high1 = Math.multiplyHigh(dy1, dx2);
+        long high2 = Math.multiplyHigh(dy2, dx1);
+        if (high1 != high2) {
+            return Long.compare(high1, high2);
+        }
+        return Long.compareUnsigned(dy1 * dx2, dy2 * dx1);
+    }
+
+    private static int slopeKind(long dx, long dy) {
+        if (dx == 0) {
+            return dy == 0 ? EQUAL : VERTICAL;
+        }
+        return FINITE;
     }
 
     /**
@@ -106,7 +177,7 @@ public class Point implements Comparable<Point> {
     private class SlopeOrder implements Comparator<Point> {
         @Override
         public int compare(Point p1, Point p2) {
-            return Double.compare(slopeTo(p1), slopeTo(p2));
+            return compareSlopes(p1, p2);
         }
     }
 
@@ -163,5 +234,23 @@ public class Point implements Comparable<Point> {
         assert p.compareTo(new Point(5, 0)) > 0;
         assert p.compareTo(new Point(10, 5)) < 0;
         assert p.compareTo(new Point(0, 5)) > 0;
+        assert new Point(Integer.MIN_VALUE, 0).compareTo(new Point(Integer.MAX_VALUE, 0)) < 0;
+
+        // Exact slope tests
+        Comparator<Point> slopeOrder = p.slopeOrder();
+        assert slopeOrder.compare(p, new Point(0, 0)) < 0;
+        assert slopeOrder.compare(new Point(5, 10), new Point(10, 10)) > 0;
+        assert slopeOrder.compare(new Point(10, 10), new Point(0, 0)) == 0;
+        assert slopeOrder.compare(new Point(10, 5), new Point(0, 5)) == 0;
+        assert slopeOrder.compare(new Point(10, 4), new Point(10, 5)) < 0;
+
+        // Distinct slopes which are equal as doubles
+        Point origin = new Point(0, 0);
+        Point far1 = new Point(Integer.MAX_VALUE, Integer.MAX_VALUE - 1);
+        Point far2 = new Point(Integer.MAX_VALUE - 1, Integer.MAX_VALUE - 2);
+        assert origin.slopeTo(far1) == origin.slopeTo(far2);
+        assert origin.slopeOrder().compare(far1, far2) > 0;
+        Point min = new Point(Integer.MIN_VALUE, Integer.MIN_VALUE);
+        assert min.slopeOrder().compare(new Point(Integer.MAX_VALUE, Integer.MAX_VALUE), origin) == 0;
     }
 }
\ No newline at end of file
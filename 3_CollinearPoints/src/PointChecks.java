@@ -0,0 +1,41 @@
+/**
+ * Argument checks shared by the collinear searches
+ */
+final class PointChecks {
+
+    private PointChecks() {
+    }
+
+    /**
+     * Validate the points.
+     * Throw a {@link IllegalArgumentException} if the points array is null
+     * or if any point in the array is null.
+     * @param points the points to validate
+     */
+    static void validatePoints(Point[] points) {
+        // Check the points are not null
+        if (points == null) {
+            throw new IllegalArgumentException();
+        }
+
+        // Check that there are no nulls in the array
+        for (int i = 0; i < points.length; i++) {
+            if (points[i] == null) {
+                throw new IllegalArgumentException();
+            }
+        }
+    }
+
+    /**
+     * Throw a {@link IllegalArgumentException} if the sorted points contain a repeated point.
+     * Equal points are adjacent after sorting, so only neighbours are compared.
+     * @param sortedPoints the sorted points
+     */
+    static void checkDuplicates(Point[] sortedPoints) {
+        for (int i = 1; i < sortedPoints.length; i++) {
+            if (sortedPoints[i - 1].compareTo(sortedPoints[i]) == 0) {
+                throw new IllegalArgumentException();
+            }
+        }
+    }
+}
@@ -0,0 +1,233 @@
+import edu.princeton.cs.algs4.StdOut;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Points stored as parallel coordinate arrays, read from and written to files.
+ * The text format is the one of the input files: the number of points followed by the
+ * x- and y-coordinates of every point, separated by whitespace. The binary format is the
+ * magic bytes "PTS1", the number of points and the coordinates, all as little-endian ints.
+ * Files are memory-mapped and parsed straight from the mapped bytes, without tokens or strings.
+ */
+public class PointCloud {
+
+    // "PTS1" read as a little-endian int
+    static final int MAGIC = 0x31535450;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final int[] xs;
+    private final int[] ys;
+
+    /**
+     * Construct a point cloud over the coordinate arrays, the arrays are not copied
+     * @param xs the x-coordinates
+     * @param ys the y-coordinates, ys[i] belongs to xs[i]
+     */
+    public PointCloud(int[] xs, int[] ys) {
+        if (xs == null || ys == null || xs.length != ys.length) {
+            throw new IllegalArgumentException();
+        }
+        this.xs = xs;
+        this.ys = ys;
+    }
+
+    /**
+     * Read the points from a text or a binary file, the format is recognized by the magic bytes.
+     * Files larger than 2 GB are not supported.
+     * @param file the file name
+     * @return the points
+     */
+    public static PointCloud read(String file) {
+        try (FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("File must not be larger than 2 GB!");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (size >= 4 && buffer.getInt(0) == MAGIC) {
+                return readBinary(buffer);
+            }
+            return readText(buffer);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static PointCloud readBinary(ByteBuffer buffer) {
+        buffer.position(4);
+        int n = nextBinaryInt(buffer);
+        if (n < 0 || buffer.remaining() != 8L * n) {
+            throw new IllegalArgumentException("Malformed binary point file!");
+        }
+
+        int[] xs = new int[n];
+        int[] ys = new int[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = buffer.getInt();
+            ys[i] = buffer.getInt();
+        }
+        return new PointCloud(xs, ys);
+    }
+
+    private static int nextBinaryInt(ByteBuffer buffer) {
+        if (buffer.remaining() < 4) {
+            throw new IllegalArgumentException("Malformed binary point file!");
+        }
+        return buffer.getInt();
+    }
+
+    private static PointCloud readText(ByteBuffer buffer) {
+        int n = nextTextInt(buffer);
+        if (n < 0) {
+            throw new IllegalArgumentException("Malformed point file!");
+        }
+
+        int[] xs = new int[n];
+        int[] ys = new int[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = nextTextInt(buffer);
+            ys[i] = nextTextInt(buffer);
+        }
+        return new PointCloud(xs, ys);
+    }
+
+    /**
+     * Parses the next whitespace separated decimal int from the buffer
+     */
+    private static int nextTextInt(ByteBuffer buffer) {
+        int position = buffer.position();
+        int limit = buffer.limit();
+        while (position < limit && buffer.get(position) <= ' ') {
+            position++;
+        }
+
+        boolean negative = position < limit && buffer.get(position) == '-';
+        if (negative) {
+            position++;
+        }
+
+        int start = position;
+        long value = 0;
+        while (position < limit) {
+            int digit = buffer.get(position) - '0';
+            if (digit < 0 || digit > 9) {
+                break;
+            }
+            value = 10 * value + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                throw new IllegalArgumentException("Coordinate out of range!");
+            }
+            position++;
+        }
+        if (position == start || (position < limit && buffer.get(position) > ' ')) {
+            throw new IllegalArgumentException("Malformed point file!");
+        }
+        if (negative) {
+            value = -value;
+        }
+        if (value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Coordinate out of range!");
+        }
+
+        buffer.position(position);
+        return (int) value;
+    }
+
+    /**
+     * Write the points to a file in the binary format
+     * @param file the file name
+     */
+    public void writeBinary(String file) {
+        Path path = Paths.get(file);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC);
+            buffer.putInt(this.xs.length);
+            for (int i = 0; i < this.xs.length; i++) {
+                if (buffer.remaining() < 8) {
+                    drain(channel, buffer);
+                }
+                buffer.putInt(this.xs[i]);
+                buffer.putInt(this.ys[i]);
+            }
+            drain(channel, buffer);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * The number of points
+     * @return the number of points
+     */
+    public int size() {
+        return this.xs.length;
+    }
+
+    /**
+     * Returns the x-coordinates, the array is not copied
+     * @return the x-coordinates
+     */
+    public int[] xs() {
+        return this.xs;
+    }
+
+    /**
+     * Returns the y-coordinates, the array is not copied
+     * @return the y-coordinates
+     */
+    public int[] ys() {
+        return this.ys;
+    }
+
+    /**
+     * Creates a {@link Point} for every point
+     * @return the points
+     */
+    public Point[] toPoints() {
+        Point[] points = new Point[this.xs.length];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = new Point(this.xs[i], this.ys[i]);
+        }
+        return points;
+    }
+
+    /**
+     * Usage: PointCloud input output
+     * Converts a point file into the binary format
+     * @param args the arguments
+     */
+    public static void main(String[] args) {
+        PointCloud cloud = read(args[0]);
+        cloud.writeBinary(args[1]);
+        StdOut.println(cloud.size() + " points written to " + args[1]);
+
+        // The binary file must read back to the same points
+        PointCloud copy = read(args[1]);
+        assert copy.size() == cloud.size();
+        for (int i = 0; i < cloud.size(); i++) {
+            assert copy.xs[i] == cloud.xs[i] && copy.ys[i] == cloud.ys[i];
+        }
+    }
+}
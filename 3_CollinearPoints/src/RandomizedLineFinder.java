@@ -0,0 +1,263 @@
+import edu.princeton.cs.algs4.In;
+import edu.princeton.cs.algs4.StdDraw;
+import edu.princeton.cs.algs4.StdOut;
+import edu.princeton.cs.algs4.StdRandom;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Finds the lines with the most points in a large point set by random sampling.
+ * Random pairs of points vote for the line through them in a hash table under an exact
+ * rational key, the lines with the most votes are then verified with a linear scan,
+ * which counts their points exactly. A line holding a fraction f of the points gets
+ * about samples * f^2 votes, so with enough samples the dominant lines are found with
+ * high probability in O(samples + k * n) time instead of the O(n^2) of an exhaustive search.
+ * {@link #samplesFor(double, double)} gives the samples for a fraction and a failure probability.
+ * At most 65536 voted lines are counted at a time, when the table is full every count drops by one
+ * (the Misra-Gries summary), so the table stays a few MB for any number of samples and every line
+ * with more than samples / 65537 votes is kept. Lines with fewer than 4 points are never reported.
+ */
+public class RandomizedLineFinder {
+
+    private static final int MIN_POINTS = 4;
+
+    private static final int DEFAULT_SAMPLES_PER_POINT = 16;
+
+    // Number of voted lines verified for every requested line
+    private static final int CANDIDATES_PER_LINE = 4;
+
+    // Number of voted lines counted at a time
+    private static final int MAX_TRACKED_LINES = 1 << 16;
+
+    // Votes a line is expected to get from the samples of samplesFor()
+    private static final double MIN_EXPECTED_VOTES = 4;
+
+    private final LineSegment[] lineSegments;
+
+    private final int[] pointCounts;
+
+    /**
+     * Finds up to k lines with the most points, sampling 16 pairs per point
+     * @param points the points
+     * @param k the number of lines
+     */
+    public RandomizedLineFinder(Point[] points, int k) {
+        this(points, k, DEFAULT_SAMPLES_PER_POINT * (points == null ? 0 : points.length));
+    }
+
+    /**
+     * Finds up to k lines with the most points.
+     * A line holding a fraction f of the points gets about samples * f^2 votes,
+     * use {@link #samplesFor(double, double)} to choose the samples for f.
+     * @param points the points
+     * @param k the number of lines
+     * @param samples the number of sampled pairs
+     */
+    public RandomizedLineFinder(Point[] points, int k, int samples) {
+        PointChecks.validatePoints(points);
+        if (k < 0 || samples < 0) {
+            throw new IllegalArgumentException();
+        }
+
+        Point[] sortedPoints = points.clone();
+        Arrays.sort(sortedPoints);
+        PointChecks.checkDuplicates(sortedPoints);
+
+        List<Candidate> lines = new ArrayList<>();
+        if (sortedPoints.length >= MIN_POINTS && k > 0) {
+            for (Candidate candidate : vote(sortedPoints, samples, CANDIDATES_PER_LINE * k)) {
+                verify(candidate, sortedPoints);
+                if (candidate.count >= MIN_POINTS) {
+                    lines.add(candidate);
+                }
+            }
+            lines.sort((c1, c2) -> Integer.compare(c2.count, c1.count));
+        }
+
+        int found = Math.min(k, lines.size());
+        this.lineSegments = new LineSegment[found];
+        this.pointCounts = new int[found];
+        for (int i = 0; i < found; i++) {
+            Candidate line = lines.get(i);
+            this.lineSegments[i] = new LineSegment(line.min, line.max);
+            this.pointCounts[i] = line.count;
+        }
+    }
+
+    /**
+     * Returns the number of sampled pairs which give a line holding the fraction of the points
+     * at least 2 votes, more than a line through two random points, with at least the probability 1 - failure.
+     * The votes are binomial with mean samples * f^2, and by the Chernoff bound fewer than half
+     * of a mean of at least 4 have a probability below exp(-mean / 8), so the mean is
+     * max(4, 8 ln(1 / failure)).
+     * @param fraction the fraction f of the points on the line, in (0, 1]
+     * @param failure the probability of fewer than 2 votes, in (0, 1)
+     * @return the number of samples
+     */
+    public static int samplesFor(double fraction, double failure) {
+        if (!(fraction > 0 && fraction <= 1) || !(failure > 0 && failure < 1)) {
+            throw new IllegalArgumentException();
+        }
+        double mean = Math.max(MIN_EXPECTED_VOTES, 8 * Math.log(1 / failure));
+        return (int) Math.min(Integer.MAX_VALUE, Math.ceil(mean / (fraction * fraction)));
+    }
+
+    /**
+     * Samples random pairs and returns the lines with the most votes.
+     * When the table is full a new line and every counted line lose a vote,
+     * which removes the lines left without votes. Every removal is paid by earlier votes,
+     * so the counting takes O(samples) time.
+     */
+    private static List<Candidate> vote(Point[] points, int samples, int candidates) {
+        int n = points.length;
+        int capacity = Math.max(MAX_TRACKED_LINES, candidates);
+        Map<LineKey, Candidate> votes = new HashMap<>();
+        for (int s = 0; s < samples; s++) {
+            int i = StdRandom.uniform(n);
+            int j = StdRandom.uniform(n - 1);
+            if (j >= i) {
+                j++;
+            }
+            LineKey key = new LineKey(points[i], points[j]);
+            Candidate candidate = votes.get(key);
+            if (candidate != null) {
+                candidate.votes++;
+            }
+            else if (votes.size() < capacity) {
+                candidate = new Candidate(key);
+                candidate.votes = 1;
+                votes.put(key, candidate);
+            }
+            else {
+                votes.values().removeIf(counted -> --counted.votes == 0);
+            }
+        }
+
+        List<Candidate> lines = new ArrayList<>(votes.values());
+        lines.sort((c1, c2) -> Integer.compare(c2.votes, c1.votes));
+        return lines.subList(0, Math.min(candidates, lines.size()));
+    }
+
+    /**
+     * Counts the points on the candidate line exactly and finds its endpoints
+     */
+    private static void verify(Candidate candidate, Point[] sortedPoints) {
+        for (Point point : sortedPoints) {
+            if (candidate.key.contains(point)) {
+                // The points are sorted, so the first point found is the smallest
+                if (candidate.count == 0) {
+                    candidate.min = point;
+                }
+                candidate.max = point;
+                candidate.count++;
+            }
+        }
+    }
+
+    private static final class Candidate {
+
+        private final LineKey key;
+        private int votes;
+        private int count;
+        private Point min;
+        private Point max;
+
+        Candidate(LineKey key) {
+            this.key = key;
+        }
+    }
+
+    /**
+     * The number of found line segments
+     * @return the number of line segments
+     */
+    public int numberOfSegments() {
+        return this.lineSegments.length;
+    }
+
+    /**
+     * Returns the found line segments, the segment with the most points first
+     * @return line segments
+     */
+    public LineSegment[] segments() {
+        return this.lineSegments.clone();
+    }
+
+    /**
+     * Returns the number of points on the i-th segment
+     * @param i the segment index
+     * @return the number of points
+     */
+    public int numberOfPoints(int i) {
+        return this.pointCounts[i];
+    }
+
+    /**
+     * Checks that a line holding 20% of the points is found with the default samples,
+     * and that the samples for a fraction grow with the confidence
+     */
+    private static void checkPlantedLine() {
+        assert samplesFor(0.2, 0.9) == 100;
+        assert samplesFor(0.2, 1e-6) > samplesFor(0.2, 1e-3);
+
+        for (int seed = 0; seed < 20; seed++) {
+            Random random = new Random(seed);
+            Set<Point> points = new TreeSet<>();
+            for (int i = 0; i < 100; i++) {
+                points.add(new Point(3 * i, 1000 + 7 * i));
+            }
+            while (points.size() < 500) {
+                points.add(new Point(random.nextInt(30000), random.nextInt(30000)));
+            }
+
+            RandomizedLineFinder finder = new RandomizedLineFinder(points.toArray(new Point[0]), 1);
+            assert finder.numberOfSegments() == 1;
+            assert finder.numberOfPoints(0) == 100;
+            assert finder.segments()[0].toString().equals("(0, 1000) -> (297, 1693)");
+        }
+    }
+
+    /**
+     * Usage: RandomizedLineFinder file [k]
+     * @param args the arguments
+     */
+    public static void main(String[] args) {
+        checkPlantedLine();
+
+        // read the n points from a file
+        In in = new In(args[0]);
+        int k = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int n = in.readInt();
+        Point[] points = new Point[n];
+        for (int i = 0; i < n; i++) {
+            int x = in.readInt();
+            int y = in.readInt();
+            points[i] = new Point(x, y);
+        }
+
+        // draw the points
+        StdDraw.enableDoubleBuffering();
+        StdDraw.setXscale(0, 32768);
+        StdDraw.setYscale(0, 32768);
+        for (Point p : points) {
+            p.draw();
+        }
+        StdDraw.show();
+
+        // print and draw the line segments
+        RandomizedLineFinder finder = new RandomizedLineFinder(points, k);
+        LineSegment[] segments = finder.segments();
+        for (int i = 0; i < segments.length; i++) {
+            StdOut.println(segments[i] + " (" + finder.numberOfPoints(i) + " points)");
+            segments[i].draw();
+        }
+        StdDraw.show();
+    }
+}
@@ -0,0 +1,55 @@
+import java.util.Arrays;
+
+/**
+ * Growable array of segment endpoint index pairs, segment i is (ends[2i], ends[2i + 1]).
+ * Shared by the collinear searches, which keep their segments as indexes into the sorted points.
+ */
+final class SegmentBuffer {
+
+    private int[] ends = new int[16];
+    private int count = 0;
+
+    /**
+     * Adds the segment between the points with the indexes
+     * @param from the index of the smaller endpoint
+     * @param to the index of the larger endpoint
+     */
+    void add(int from, int to) {
+        ensureCapacity(this.count + 1);
+        this.ends[2 * this.count] = from;
+        this.ends[2 * this.count + 1] = to;
+        this.count++;
+    }
+
+    /**
+     * Appends the segments of the other buffer
+     * @param other the other buffer
+     */
+    void addAll(SegmentBuffer other) {
+        ensureCapacity(this.count + other.count);
+        System.arraycopy(other.ends, 0, this.ends, 2 * this.count, 2 * other.count);
+        this.count += other.count;
+    }
+
+    /**
+     * Returns the endpoint indexes, the array may be longer than 2 * count()
+     * @return the endpoint indexes
+     */
+    int[] ends() {
+        return this.ends;
+    }
+
+    /**
+     * Returns the number of segments
+     * @return the number of segments
+     */
+    int count() {
+        return this.count;
+    }
+
+    private void ensureCapacity(int segments) {
+        if (2 * segments > this.ends.length) {
+            this.ends = Arrays.copyOf(this.ends, Math.max(2 * segments, 2 * this.ends.length));
+        }
+    }
+}
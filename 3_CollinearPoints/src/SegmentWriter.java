@@ -0,0 +1,171 @@
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Writes line segments to a stream, as text in the format of {@link LineSegment#toString()},
+ * one segment per line, or in binary as the magic bytes "SEG1" followed by the endpoint
+ * coordinates x1, y1, x2, y2 of every segment as little-endian ints.
+ * The segments are encoded straight into a byte buffer, without creating strings.
+ */
+public class SegmentWriter implements Closeable, Flushable {
+
+    // "SEG1" read as a little-endian int
+    static final int MAGIC = 0x31474553;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // Longest text segment "(-2147483648, -2147483648) -> (-2147483648, -2147483648)\n"
+    private static final int MAX_TEXT_SEGMENT = 58;
+
+    private final OutputStream out;
+
+    private final boolean binary;
+
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+
+    private int position = 0;
+
+    /**
+     * Construct a text writer
+     * @param out the stream
+     */
+    public SegmentWriter(OutputStream out) {
+        this(out, false);
+    }
+
+    /**
+     * Construct a text or binary writer, the binary writer starts with the magic bytes
+     * @param out the stream
+     * @param binary true to write the binary format
+     */
+    public SegmentWriter(OutputStream out, boolean binary) {
+        if (out == null) {
+            throw new IllegalArgumentException();
+        }
+        this.out = out;
+        this.binary = binary;
+        if (binary) {
+            putInt(MAGIC);
+        }
+    }
+
+    /**
+     * Write the segment between the points
+     * @param from the first endpoint
+     * @param to the second endpoint
+     */
+    public void write(Point from, Point to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException();
+        }
+        if (this.buffer.length - this.position < MAX_TEXT_SEGMENT) {
+            flushBuffer();
+        }
+
+        if (this.binary) {
+            putInt(from.x());
+            putInt(from.y());
+            putInt(to.x());
+            putInt(to.y());
+        }
+        else {
+            putPoint(from);
+            putAscii(" -> ");
+            putPoint(to);
+            this.buffer[this.position++] = '\n';
+        }
+    }
+
+    /**
+     * Write all segments found by the search
+     * @param collinear the search
+     */
+    public void write(FastCollinearPoints collinear) {
+        if (collinear == null) {
+            throw new IllegalArgumentException();
+        }
+        collinear.forEachSegment(this::write);
+    }
+
+    private void putPoint(Point point) {
+        this.buffer[this.position++] = '(';
+        putDecimal(point.x());
+        putAscii(", ");
+        putDecimal(point.y());
+        this.buffer[this.position++] = ')';
+    }
+
+    private void putAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            this.buffer[this.position++] = (byte) text.charAt(i);
+        }
+    }
+
+    private void putDecimal(int value) {
+        long v = value;
+        if (v < 0) {
+            this.buffer[this.position++] = '-';
+            v = -v;
+        }
+
+        // Write the digits backwards and then reverse them
+        int start = this.position;
+        do {
+            this.buffer[this.position++] = (byte) ('0' + v % 10);
+            v /= 10;
+        } while (v != 0);
+        for (int i = start, j = this.position - 1; i < j; i++, j--) {
+            byte digit = this.buffer[i];
+            this.buffer[i] = this.buffer[j];
+            this.buffer[j] = digit;
+        }
+    }
+
+    private void putInt(int value) {
+        this.buffer[this.position++] = (byte) value;
+        this.buffer[this.position++] = (byte) (value >>> 8);
+        this.buffer[this.position++] = (byte) (value >>> 16);
+        this.buffer[this.position++] = (byte) (value >>> 24);
+    }
+
+    private void flushBuffer() {
+        try {
+            this.out.write(this.buffer, 0, this.position);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.position = 0;
+    }
+
+    /**
+     * Write the buffered segments to the stream and flush it
+     */
+    @Override
+    public void flush() {
+        flushBuffer();
+        try {
+            this.out.flush();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Flush the buffered segments and close the stream
+     */
+    @Override
+    public void close() {
+        flushBuffer();
+        try {
+            this.out.close();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/**
+ * Finds the segments through one anchor of points given as coordinate arrays in natural order.
+ * The other points are sorted by the key of their slope to the anchor with a {@link SlopeSorter},
+ * runs of equal keys are then split by the exact slope. A segment is added for every group of
+ * at least minPoints - 1 points with the same slope when the anchor is the smallest point on it.
+ * Shared by the collinear searches, the scratch arrays are reused for every anchor.
+ */
+final class SlopeSearch {
+
+    private final int[] xs;
+    private final int[] ys;
+    private final int minPoints;
+
+    // Scratch arrays reused for every anchor
+    private final SlopeSorter sorter;
+    private final int[] run;
+
+    /**
+     * Creates the search over the points
+     * @param xs the x-coordinates of the points in natural order
+     * @param ys the y-coordinates, ys[i] belongs to xs[i]
+     * @param minPoints the minimum number of points on a segment, at least 2
+     */
+    SlopeSearch(int[] xs, int[] ys, int minPoints) {
+        this.xs = xs;
+        this.ys = ys;
+        this.minPoints = minPoints;
+        this.sorter = new SlopeSorter(Math.max(0, xs.length - 1));
+        this.run = new int[Math.max(0, xs.length - 1)];
+    }
+
+    /**
+     * Adds the segments whose smallest point is the anchor to the buffer
+     * @param anchor the anchor index
+     * @param segments the buffer receiving the segment endpoint indexes
+     */
+    void findSegments(int anchor, SegmentBuffer segments) {
+        int count = 0;
+        long[] keys = this.sorter.keys();
+        int[] indexes = this.sorter.indexes();
+        for (int q = 0; q < this.xs.length; q++) {
+            if (q != anchor) {
+                keys[count] = SlopeSorter.slopeKey((long) this.xs[q] - this.xs[anchor],
+                        (long) this.ys[q] - this.ys[anchor]);
+                indexes[count] = q;
+                count++;
+            }
+        }
+        // The sort is stable, so points with equal keys stay in natural order
+        this.sorter.sort(count);
+
+        keys = this.sorter.keys();
+        for (int start = 0, end = 1; start + this.minPoints - 1 <= count; start = end, end++) {
+            while (end < count && keys[end] == keys[start]) {
+                end++;
+            }
+            if (end - start >= this.minPoints - 1) {
+                splitRun(anchor, start, end, segments);
+            }
+        }
+    }
+
+    /**
+     * Splits a run of equal keys into groups of points with exactly equal slopes to the anchor.
+     * Distinct slopes share a key only for coordinate differences beyond 2^26, so the run is nearly always one group.
+     */
+    private void splitRun(int anchor, int start, int end, SegmentBuffer segments) {
+        int remaining = end - start;
+        System.arraycopy(this.sorter.indexes(), start, this.run, 0, remaining);
+
+        while (remaining >= this.minPoints - 1) {
+            // Take out the points with the same slope as the first one, keeping natural order
+            int first = this.run[0];
+            int groupSize = 1;
+            int last = first;
+            int kept = 0;
+            for (int i = 1; i < remaining; i++) {
+                int q = this.run[i];
+                if (sameSlope(anchor, first, q)) {
+                    groupSize++;
+                    last = q;
+                }
+                else {
+                    this.run[kept++] = q;
+                }
+            }
+
+            if (groupSize >= this.minPoints - 1 && first > anchor) {
+                segments.add(anchor, last);
+            }
+            remaining = kept;
+        }
+    }
+
+    /**
+     * Checks exactly whether the slopes from the anchor to the points p and q are equal
+     */
+    private boolean sameSlope(int anchor, int p, int q) {
+        long dx1 = (long) this.xs[p] - this.xs[anchor];
+        long dy1 = (long) this.ys[p] - this.ys[anchor];
+        long dx2 = (long) this.xs[q] - this.xs[anchor];
+        long dy2 = (long) this.ys[q] - this.ys[anchor];
+
+        // The differences take 33 bits, so the products need 128-bit arithmetic
+        return dy1 * dx2 == dy2 * dx1 && Math.multiplyHigh(dy1, dx2) == Math.multiplyHigh(dy2, dx1);
+    }
+}
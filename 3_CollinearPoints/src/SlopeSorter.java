@@ -0,0 +1,148 @@
+import java.util.Arrays;
+
+/**
+ * Stable LSD radix sort of unsigned 64-bit keys carrying int indexes, 11 bits per pass.
+ * The counts of all passes are taken in one scan and a pass is skipped when all keys
+ * have the same digit. Short arrays are sorted by insertion sort instead.
+ * The key and index arrays are swapped with the buffers after every pass,
+ * so they must be fetched again after sorting.
+ * Shared by the collinear searches, which sort the points around every anchor by slope.
+ */
+final class SlopeSorter {
+
+    private static final int BITS = 11;
+    private static final int RADIX = 1 << BITS;
+    private static final int MASK = RADIX - 1;
+    private static final int PASSES = (Long.SIZE + BITS - 1) / BITS;
+
+    private static final int INSERTION_SORT_THRESHOLD = 64;
+
+    private long[] keys;
+    private int[] indexes;
+    private long[] keyBuffer;
+    private int[] indexBuffer;
+    private final int[] counts = new int[PASSES * RADIX];
+
+    SlopeSorter(int capacity) {
+        this.keys = new long[capacity];
+        this.indexes = new int[capacity];
+        this.keyBuffer = new long[capacity];
+        this.indexBuffer = new int[capacity];
+    }
+
+    /**
+     * Returns the keys to fill before sorting and to read after it
+     * @return the keys
+     */
+    long[] keys() {
+        return this.keys;
+    }
+
+    /**
+     * Returns the indexes carried with the keys
+     * @return the indexes
+     */
+    int[] indexes() {
+        return this.indexes;
+    }
+
+    /**
+     * Returns a key whose unsigned order is the order of the slopes from the anchor to the point
+     * @param anchor the anchor
+     * @param point the point, different from the anchor
+     * @return the key
+     */
+    static long slopeKey(Point anchor, Point point) {
+        return slopeKey((long) point.x() - anchor.x(), (long) point.y() - anchor.y());
+    }
+
+    /**
+     * Returns a key whose unsigned order is the order of the slopes dy / dx.
+     * Division rounds monotonically, so equal slopes get equal keys. Distinct slopes get
+     * equal keys only when they differ by less than the precision of a double, which
+     * needs differences of more than 2^26.
+     * @param dx the x-difference, not 0 together with dy
+     * @param dy the y-difference
+     * @return the key
+     */
+    static long slopeKey(long dx, long dy) {
+        double slope;
+        if (dx == 0) {
+            slope = Double.POSITIVE_INFINITY;
+        }
+        else if (dy == 0) {
+            slope = 0.0;
+        }
+        else {
+            slope = (double) dy / dx;
+        }
+
+        // Flip all bits of negative numbers and the sign bit of positive ones
+        long bits = Double.doubleToRawLongBits(slope);
+        return bits < 0 ? ~bits : bits ^ Long.MIN_VALUE;
+    }
+
+    /**
+     * Sorts the first m keys together with their indexes
+     */
+    void sort(int m) {
+        if (m < INSERTION_SORT_THRESHOLD) {
+            insertionSort(m);
+            return;
+        }
+
+        int[] counts = this.counts;
+        Arrays.fill(counts, 0);
+        for (int i = 0; i < m; i++) {
+            long key = this.keys[i];
+            for (int pass = 0; pass < PASSES; pass++) {
+                counts[pass * RADIX + (int) ((key >>> (pass * BITS)) & MASK)]++;
+            }
+        }
+
+        for (int pass = 0; pass < PASSES; pass++) {
+            int offset = pass * RADIX;
+            int shift = pass * BITS;
+            if (counts[offset + (int) ((this.keys[0] >>> shift) & MASK)] == m) {
+                continue;
+            }
+
+            // Turn the counts into the first position of every digit
+            for (int digit = 0, sum = 0; digit < RADIX; digit++) {
+                int count = counts[offset + digit];
+                counts[offset + digit] = sum;
+                sum += count;
+            }
+            for (int i = 0; i < m; i++) {
+                long key = this.keys[i];
+                int position = counts[offset + (int) ((key >>> shift) & MASK)]++;
+                this.keyBuffer[position] = key;
+                this.indexBuffer[position] = this.indexes[i];
+            }
+
+            long[] keySwap = this.keys;
+            this.keys = this.keyBuffer;
+            this.keyBuffer = keySwap;
+            int[] indexSwap = this.indexes;
+            this.indexes = this.indexBuffer;
+            this.indexBuffer = indexSwap;
+        }
+    }
+
+    private void insertionSort(int m) {
+        long[] keys = this.keys;
+        int[] indexes = this.indexes;
+        for (int i = 1; i < m; i++) {
+            long key = keys[i];
+            int index = indexes[i];
+            int j = i - 1;
+            while (j >= 0 && Long.compareUnsigned(keys[j], key) > 0) {
+                keys[j + 1] = keys[j];
+                indexes[j + 1] = indexes[j];
+                j--;
+            }
+            keys[j + 1] = key;
+            indexes[j + 1] = index;
+        }
+    }
+}